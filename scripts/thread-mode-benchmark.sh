@@ -0,0 +1,115 @@
+#!/usr/bin/env bash
+# Compares platform threads and virtual threads on the book read and order create endpoints.
+# Starts the packaged app once per mode against the configured database and drives it with `hey`
+# (https://github.com/rakyll/hey). BOOK_ID and CUSTOMER_ID must exist. Before each mode the
+# book's stock is set to ORDER_STOCK, enough that no run sells it out, so both modes time the
+# same successful order path. Any non-2xx response or connection error fails the script.
+#
+#   mvn -q package -DskipTests && scripts/thread-mode-benchmark.sh
+#   MODES="virtual platform" scripts/thread-mode-benchmark.sh     # the other order
+set -euo pipefail
+
+JAR=${JAR:-$(ls target/bookstore-app-*.jar | head -n 1)}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+BOOK_ID=${BOOK_ID:-1}
+CUSTOMER_ID=${CUSTOMER_ID:-1}
+ORDER_STOCK=${ORDER_STOCK:-10000000}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-15s}
+CONCURRENCY=${CONCURRENCY:-200}
+MODES=${MODES:-platform virtual}
+OUT_DIR=${OUT_DIR:-target/thread-mode-benchmark}
+
+ORDER_BODY="{\"customerId\":${CUSTOMER_ID},\"items\":[{\"bookId\":${BOOK_ID},\"quantity\":1}]}"
+
+mkdir -p "$OUT_DIR"
+
+wait_for_app() {
+    for _ in $(seq 1 60); do
+        if curl -sf "$BASE_URL/api/books/$BOOK_ID" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Application did not start" >&2
+    return 1
+}
+
+# Puts the book back to ORDER_STOCK, so every mode starts from the same stock
+reset_stock() {
+    curl -sf "$BASE_URL/api/books/$BOOK_ID" \
+        | sed -E "s/\"stockQuantity\":[0-9]+/\"stockQuantity\":$ORDER_STOCK/" \
+        | curl -sf -X PUT -H "Content-Type: application/json" --data-binary @- \
+            "$BASE_URL/api/books/$BOOK_ID" > /dev/null
+}
+
+# Prints "<requests/sec> <p50 ms> <p99 ms> <non-2xx responses> <errors>" from a hey report.
+# Errors are requests that got no response at all (hey's "Error distribution").
+summarize() {
+    awk '
+        /Requests\/sec/ { rps = $2 }
+        /50% in/ { p50 = $3 * 1000 }
+        /99% in/ { p99 = $3 * 1000 }
+        /^Status code distribution/ { section = "status"; next }
+        /^Error distribution/ { section = "error"; next }
+        section == "status" && /^ *\[[0-9]+\]/ {
+            code = $1; gsub(/[][]/, "", code)
+            if (code < 200 || code >= 300) { failed += $2 }
+        }
+        section == "error" && /^ *\[[0-9]+\]/ {
+            count = $1; gsub(/[][]/, "", count)
+            errors += count
+        }
+        END { printf "%.1f %.2f %.2f %d %d\n", rps, p50, p99, failed, errors }
+    ' "$1"
+}
+
+run_mode() {
+    local mode=$1 virtual=$2
+    # In virtual mode the JVM reports every carrier-thread pin (synchronized around blocking I/O) to the log
+    BOOKSTORE_VIRTUAL_THREADS=$virtual java -Djdk.tracePinnedThreads=short -jar "$JAR" \
+        --logging.level.org.hibernate.SQL=WARN \
+        --logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN \
+        --spring.jpa.show-sql=false > "$OUT_DIR/$mode-app.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2> /dev/null || true" EXIT
+    wait_for_app
+    reset_stock
+
+    hey -z "$WARMUP" -c "$CONCURRENCY" "$BASE_URL/api/books/$BOOK_ID" > /dev/null
+    hey -z "$DURATION" -c "$CONCURRENCY" "$BASE_URL/api/books/$BOOK_ID" > "$OUT_DIR/$mode-book-read.txt"
+    hey -z "$DURATION" -c "$CONCURRENCY" -m POST -T application/json -d "$ORDER_BODY" \
+        "$BASE_URL/api/orders" > "$OUT_DIR/$mode-order-create.txt"
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    trap - EXIT
+}
+
+for mode in $MODES; do
+    case $mode in
+        platform) run_mode platform false ;;
+        virtual) run_mode virtual true ;;
+        *) echo "Unknown mode: $mode" >&2; exit 1 ;;
+    esac
+done
+
+status=0
+printf "%-10s %-14s %12s %10s %10s %9s %8s\n" mode endpoint "req/s" "p50 ms" "p99 ms" "non-2xx" errors
+for mode in $MODES; do
+    for endpoint in book-read order-create; do
+        read -r rps p50 p99 failed errors <<< "$(summarize "$OUT_DIR/$mode-$endpoint.txt")"
+        printf "%-10s %-14s %12s %10s %10s %9s %8s\n" "$mode" "$endpoint" "$rps" "$p50" "$p99" "$failed" "$errors"
+        if [ "$failed" -gt 0 ] || [ "$errors" -gt 0 ]; then
+            status=1
+        fi
+    done
+done
+
+if [[ " $MODES " == *" virtual "* ]]; then
+    echo "Pinned virtual threads reported: $(grep -c "<== monitors" "$OUT_DIR/virtual-app.log" || true)"
+fi
+if [ "$status" -ne 0 ]; then
+    echo "Some requests failed; see the Status code and Error distributions in $OUT_DIR" >&2
+fi
+exit "$status"
@@ -0,0 +1,51 @@
+package com.wooseok.bookstore.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Binary wire formats for service-to-service callers: Smile (application/x-jackson-smile) and CBOR
+// (application/cbor), next to JSON on every endpoint that takes or returns a DTO. The Accept header
+// picks the response format and Content-Type the request body's; JSON stays the default.
+// Both mappers come from Spring Boot's Jackson2ObjectMapperBuilder, so they share the JSON mapper's
+// modules and settings: LocalDateTime is an ISO-8601 string with every digit, and BigDecimal keeps
+// its unscaled value and scale (Smile's native big decimal, CBOR's decimal fraction tag), so prices
+// and timestamps round-trip exactly.
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    // These replace the converters Spring MVC adds by itself once the formats are on the classpath,
+    // whose mappers are built without the application's Jackson settings
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // The same URL now answers in several formats, so caches must key on Accept. Set before the
+    // handler runs, so 304 responses carry it as well.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
@@ -1,12 +1,25 @@
 package com.wooseok.bookstore.controller;
 
+import com.wooseok.bookstore.dto.BestsellersDTO;
 import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.BookImportResultDTO;
+import com.wooseok.bookstore.dto.CursorPageDTO;
+import com.wooseok.bookstore.service.BestsellerService;
+import com.wooseok.bookstore.service.BookImportService;
 import com.wooseok.bookstore.service.BookService;
+import com.wooseok.bookstore.service.ImportFormat;
+import com.wooseok.bookstore.service.StockAlertService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -16,6 +29,10 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BestsellerService bestsellerService;
+    private final StockAlertService stockAlertService;
+    private final RepresentationETags representationETags;
 
     // CRUD operations
     @PostMapping
@@ -24,14 +41,58 @@ public class BookController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    // Cursor-paged listing: pass the returned nextCursor as ?after= to get the next page
     @GetMapping
+    public ResponseEntity<CursorPageDTO<BookDTO>> getBooks(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            NativeWebRequest request) {
+        String eTag = representationETags.of(bookService.getBooksETag(after, limit), request);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(bookService.getBooks(after, limit));
+    }
+
+    // Whole table in one response, only on explicit opt-in (?unpaged=true)
+    @GetMapping(params = "unpaged=true")
     public ResponseEntity<List<BookDTO>> getAllBooks() {
         return ResponseEntity.ok(bookService.getAllBooks());
     }
 
+    // Streams every book as newline-delimited JSON, for sync jobs that need the full data set
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = bookService::exportBooks;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Bulk catalog import from a CSV (with a header row) or newline-delimited JSON feed, upserted by
+    // ISBN. The body is read as it arrives; the response counts what happened to every row.
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<BookImportResultDTO> importCsv(
+            InputStream feed,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return ResponseEntity.ok(bookImportService.importBooks(feed, ImportFormat.CSV, chunkSize));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BookImportResultDTO> importNdjson(
+            InputStream feed,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return ResponseEntity.ok(bookImportService.importBooks(feed, ImportFormat.NDJSON, chunkSize));
+    }
+
+    // Answers If-None-Match with 304 from a version lookup, before loading the book
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
-        return ResponseEntity.ok(bookService.getBookById(id));
+    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id, NativeWebRequest request) {
+        String eTag = representationETags.of(bookService.getBookETag(id), request);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(bookService.getBookById(id));
     }
 
     @PutMapping("/{id}")
@@ -45,32 +106,66 @@ public class BookController {
         return ResponseEntity.noContent().build();
     }
 
-    // Search and filter endpoints
+    // Text search: best matches first, at most limit results
     @GetMapping("/search/author/{author}")
-    public ResponseEntity<List<BookDTO>> searchByAuthor(@PathVariable String author) {
-        return ResponseEntity.ok(bookService.findBooksByAuthor(author));
+    public ResponseEntity<List<BookDTO>> searchByAuthor(
+            @PathVariable String author,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(bookService.findBooksByAuthor(author, limit));
     }
 
     @GetMapping("/search/title/{title}")
-    public ResponseEntity<List<BookDTO>> searchByTitle(@PathVariable String title) {
-        return ResponseEntity.ok(bookService.findBooksByTitle(title));
+    public ResponseEntity<List<BookDTO>> searchByTitle(
+            @PathVariable String title,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(bookService.findBooksByTitle(title, limit));
     }
 
+    // Filter endpoints (cursor-paged like the listing)
+
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<BookDTO>> getBooksByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(bookService.searchByCategory(category));
+    public ResponseEntity<CursorPageDTO<BookDTO>> getBooksByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            NativeWebRequest request) {
+        String eTag = representationETags.of(bookService.getCategoryETag(category, after, limit), request);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(bookService.searchByCategory(category, after, limit));
     }
 
     @GetMapping("/price-range")
-    public ResponseEntity<List<BookDTO>> getBooksByPriceRange(
+    public ResponseEntity<CursorPageDTO<BookDTO>> getBooksByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        return ResponseEntity.ok(bookService.findByPriceRange(minPrice, maxPrice));
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(bookService.findByPriceRange(minPrice, maxPrice, after, limit));
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<List<BookDTO>> getLowStockBooks(
-            @RequestParam(defaultValue = "10") int threshold) {
-        return ResponseEntity.ok(bookService.findLowStockBooks(threshold));
+    public ResponseEntity<CursorPageDTO<BookDTO>> getLowStockBooks(
+            @RequestParam(defaultValue = "10") int threshold,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(bookService.findLowStockBooks(threshold, after, limit));
+    }
+
+    // Server-Sent Events: a "low-stock" event when a book's stock drops below the threshold and a
+    // "restocked" event when it gets back to it. Read GET /low-stock once for the current state.
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStock(@RequestParam(defaultValue = "10") int threshold) {
+        return stockAlertService.subscribe(threshold);
+    }
+
+    // Most units sold over the last hour, day or week, optionally within one category
+    @GetMapping("/bestsellers")
+    public ResponseEntity<BestsellersDTO> getBestsellers(
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bestsellerService.getBestsellers(window, category, limit));
     }
-}
\ No newline at end of file
+}
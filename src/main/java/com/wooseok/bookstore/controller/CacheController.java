@@ -0,0 +1,23 @@
+package com.wooseok.bookstore.controller;
+
+import com.wooseok.bookstore.dto.CacheRegionStatsDTO;
+import com.wooseok.bookstore.service.CacheStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    // Second-level and query cache hit/miss statistics, for sizing the regions in ehcache.xml
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheRegionStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getRegionStats());
+    }
+}
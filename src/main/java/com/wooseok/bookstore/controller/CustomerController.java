@@ -1,12 +1,21 @@
 package com.wooseok.bookstore.controller;
 
+import com.wooseok.bookstore.dto.CursorPageDTO;
 import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.CustomerImportResultDTO;
+import com.wooseok.bookstore.service.CustomerImportService;
 import com.wooseok.bookstore.service.CustomerService;
+import com.wooseok.bookstore.service.ImportFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,6 +24,8 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerImportService customerImportService;
+    private final RepresentationETags representationETags;
 
     @PostMapping
     public ResponseEntity<CustomerDTO> createCustomer(@RequestBody CustomerDTO customerDTO) {
@@ -36,14 +47,58 @@ public class CustomerController {
         return ResponseEntity.noContent().build();
     }
 
+    // Cursor-paged listing: pass the returned nextCursor as ?after= to get the next page
     @GetMapping
+    public ResponseEntity<CursorPageDTO<CustomerDTO>> getCustomers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            NativeWebRequest request) {
+        String eTag = representationETags.of(customerService.getCustomersETag(after, limit), request);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(customerService.getCustomers(after, limit));
+    }
+
+    // Whole table in one response, only on explicit opt-in (?unpaged=true)
+    @GetMapping(params = "unpaged=true")
     public ResponseEntity<List<CustomerDTO>> getAllCustomers() {
         return ResponseEntity.ok(customerService.getAllCustomers());
     }
 
+    // Streams every customer as newline-delimited JSON, for sync jobs that need the full data set
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        StreamingResponseBody body = customerService::exportCustomers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Bulk customer import from a CSV (with a header row) or newline-delimited JSON feed. Customers
+    // whose email is already taken are skipped and listed in the response, with their line.
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<CustomerImportResultDTO> importCsv(
+            InputStream feed,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return ResponseEntity.ok(customerImportService.importCustomers(feed, ImportFormat.CSV, chunkSize));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<CustomerImportResultDTO> importNdjson(
+            InputStream feed,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return ResponseEntity.ok(customerImportService.importCustomers(feed, ImportFormat.NDJSON, chunkSize));
+    }
+
+    // Answers If-None-Match with 304 from a version lookup, before loading the customer
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id) {
-        return ResponseEntity.ok(customerService.getCustomerById(id));
+    public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id, NativeWebRequest request) {
+        String eTag = representationETags.of(customerService.getCustomerETag(id), request);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(customerService.getCustomerById(id));
     }
 
     @GetMapping("/email/{email}")
@@ -1,16 +1,27 @@
 package com.wooseok.bookstore.controller;
 
+import com.wooseok.bookstore.dto.BatchOrderResultDTO;
+import com.wooseok.bookstore.dto.CursorPageDTO;
 import com.wooseok.bookstore.dto.OrderDTO;
 import com.wooseok.bookstore.dto.OrderItemDTO;
+import com.wooseok.bookstore.dto.OrderStatusDTO;
+import com.wooseok.bookstore.dto.StatusTransitionResultDTO;
+import com.wooseok.bookstore.service.OrderPipeline;
 import com.wooseok.bookstore.service.OrderService;
+import com.wooseok.bookstore.service.OrderTransitionService;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -18,26 +29,56 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final Optional<OrderPipeline> orderPipeline;
+    private final OrderTransitionService orderTransitionService;
 
-    // Place a new order
+    // Place a new order. In async mode (bookstore.orders.mode=async) the order is only accepted here:
+    // 202 with the PENDING order id, then poll GET /api/orders/{id}/status until CONFIRMED or CANCELLED.
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@RequestBody CreateOrderRequest request) {
-        // Convert CreateOrderRequest to OrderDTO for the service layer
-        OrderDTO orderDTO = OrderDTO.builder()
-                .customerId(request.getCustomerId())
-                .items(request.getItems())
-                .build();
-
-        OrderDTO order = orderService.createOrder(orderDTO);
+    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request) {
+        if (orderPipeline.isPresent()) {
+            OrderStatusDTO accepted = orderPipeline.get().submit(toOrderDTO(request));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/" + accepted.getOrderId() + "/status"))
+                    .body(accepted);
+        }
+        OrderDTO order = orderService.createOrder(toOrderDTO(request));
         return new ResponseEntity<>(order, HttpStatus.CREATED);
     }
 
+    // Place many orders at once; each order succeeds or fails on its own
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchOrderResultDTO>> createOrders(@RequestBody List<CreateOrderRequest> requests) {
+        List<OrderDTO> orderDTOs = requests.stream()
+                .map(this::toOrderDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(orderService.createOrders(orderDTOs));
+    }
+
+    // Cursor-paged listing: pass the returned nextCursor as ?after= to get the next page
     @GetMapping
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getOrders(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(orderService.getOrders(after, limit));
+    }
+
+    // Every order in one response, only on explicit opt-in (?unpaged=true)
+    @GetMapping(params = "unpaged=true")
     public ResponseEntity<List<OrderDTO>> getAllOrders() {
         List<OrderDTO> orders = orderService.getAllOrders();
         return ResponseEntity.ok(orders);
     }
 
+    // Streams every order as newline-delimited JSON, for sync jobs that need the full data set
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = orderService::exportOrders;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     // Get order by ID
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
@@ -45,13 +86,45 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
-    // Get all orders for a specific customer
+    // Move orders along PENDING -> CONFIRMED -> SHIPPED -> DELIVERED in chunked, set-based updates.
+    // If the result is not completed, send the same request again (optionally with after=resumeAfter).
+    @PostMapping("/status-transitions")
+    public ResponseEntity<StatusTransitionResultDTO> transitionOrders(@RequestBody StatusTransitionRequest request) {
+        return ResponseEntity.ok(orderTransitionService.transitionOrders(
+                request.getFrom(), request.getTo(), request.getOrderIds(),
+                request.getAfter(), request.getMaxOrders(), request.getChunkSize()));
+    }
+
+    // Status only, for polling async orders
+    @GetMapping("/{id}/status")
+    public ResponseEntity<OrderStatusDTO> getOrderStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(orderService.getOrderStatus(id));
+    }
+
+    // Get orders for a specific customer, one page at a time
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<OrderDTO>> getCustomerOrders(@PathVariable Long customerId) {
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getCustomerOrders(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(orderService.getCustomerOrders(customerId, after, limit));
+    }
+
+    // Get all orders for a specific customer, only on explicit opt-in (?unpaged=true)
+    @GetMapping(value = "/customer/{customerId}", params = "unpaged=true")
+    public ResponseEntity<List<OrderDTO>> getAllCustomerOrders(@PathVariable Long customerId) {
         List<OrderDTO> orders = orderService.getCustomerOrders(customerId);
         return ResponseEntity.ok(orders);
     }
 
+    // Convert CreateOrderRequest to OrderDTO for the service layer
+    private OrderDTO toOrderDTO(CreateOrderRequest request) {
+        return OrderDTO.builder()
+                .customerId(request.getCustomerId())
+                .items(request.getItems())
+                .build();
+    }
+
     // Inner class for the request body
     @lombok.Data
     public static class CreateOrderRequest {
@@ -61,4 +134,18 @@ public class OrderController {
         @NotEmpty(message = "Order must contain at least one item")
         private List<OrderItemDTO> items;
     }
-}
\ No newline at end of file
+
+    @lombok.Data
+    public static class StatusTransitionRequest {
+        @NotNull(message = "from status is required")
+        private String from;
+
+        @NotNull(message = "to status is required")
+        private String to;
+
+        private List<Long> orderIds;   // optional: only these orders
+        private Long after;            // optional: resume past this order id
+        private Integer maxOrders;     // optional: stop after examining this many orders
+        private Integer chunkSize;     // optional: orders per transaction (default 1000)
+    }
+}
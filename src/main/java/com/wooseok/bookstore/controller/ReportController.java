@@ -0,0 +1,35 @@
+package com.wooseok.bookstore.controller;
+
+import com.wooseok.bookstore.dto.RebuildResultDTO;
+import com.wooseok.bookstore.dto.SalesReportDTO;
+import com.wooseok.bookstore.service.SalesReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final SalesReportService salesReportService;
+
+    // Sales grouped by day, book or category; from/to default to the last 30 days
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReportDTO> getSalesReport(
+            @RequestParam(defaultValue = "day") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(salesReportService.getSalesReport(groupBy, from, to, limit));
+    }
+
+    // Recompute the rollups from the order history
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<RebuildResultDTO> rebuildSalesRollups() {
+        return ResponseEntity.ok(salesReportService.rebuildRollups());
+    }
+}
@@ -0,0 +1,53 @@
+package com.wooseok.bookstore.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.util.List;
+
+// The same resource in JSON, Smile and CBOR is three different byte sequences, so each needs its own
+// strong ETag (see WireFormatConfig). The format is taken from Accept the way the message converters
+// pick it: the first acceptable type, by quality and specificity, that one of the formats matches.
+// JSON keeps the service's ETag as it is, and the binary formats get a suffix on it.
+@Component
+class RepresentationETags {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    // In converter order, so */* and a missing Accept header get JSON
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, SMILE, MediaType.APPLICATION_CBOR);
+
+    private final ContentNegotiationManager contentNegotiationManager;
+
+    // There is no MVC manager when the services run without a web server, as in the JMH benchmarks
+    RepresentationETags(ObjectProvider<ContentNegotiationManager> contentNegotiationManager) {
+        this.contentNegotiationManager = contentNegotiationManager.getIfAvailable(ContentNegotiationManager::new);
+    }
+
+    String of(String eTag, NativeWebRequest request) {
+        MediaType format = negotiate(request);
+        if (format.equals(MediaType.APPLICATION_JSON)) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + "-" + format.getSubtype() + "\"";
+    }
+
+    private MediaType negotiate(NativeWebRequest request) {
+        try {
+            for (MediaType acceptable : contentNegotiationManager.resolveMediaTypes(request)) {
+                for (MediaType format : FORMATS) {
+                    if (acceptable.isCompatibleWith(format)) {
+                        return format;
+                    }
+                }
+            }
+        } catch (HttpMediaTypeNotAcceptableException ex) {
+            // Unparseable Accept header: the response will be a 406, whatever the ETag
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
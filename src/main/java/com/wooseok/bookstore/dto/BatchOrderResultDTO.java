@@ -0,0 +1,17 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResultDTO {
+    private int index; // position of the order in the submitted batch
+    private boolean success;
+    private OrderDTO order;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestsellerDTO {
+    private Long bookId;
+    private String title;
+    private String author;
+    private String category;
+    private long units;
+}
@@ -0,0 +1,20 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestsellersDTO {
+    private String window;
+    private String category;   // null for the whole store
+    private LocalDateTime asOf;  // when the ranking was computed
+    private List<BestsellerDTO> books;
+}
@@ -0,0 +1,16 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportErrorDTO {
+    private long line;           // line of the feed the row starts on
+    private String isbn;
+    private String message;
+}
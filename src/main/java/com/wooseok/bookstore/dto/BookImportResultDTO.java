@@ -0,0 +1,30 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResultDTO {
+    private String format;
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long duplicates;     // superseded by a later row with the same ISBN in the same chunk
+    private long failed;
+    private boolean completed;   // false when the feed was cut short (malformed, too long) or a chunk could not be written
+    private long lastLine;       // last row of the last committed chunk; the rows up to it are imported or in errors
+    private String error;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private int chunks;
+    private long chunkMillisP50;
+    private long chunkMillisMax;
+    private List<BookImportErrorDTO> errors;  // the first 1,000 failed rows; failed has the full count
+}
@@ -0,0 +1,34 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportResultDTO {
+    private String format;
+    private long rows;
+    private long created;
+    private long duplicates;     // email already used by an earlier row of the same chunk
+    private long emailExists;    // email already taken in the database
+    private long invalid;
+    private long failed;         // rejected by the database for another reason
+    private boolean completed;   // false when the feed was cut short (malformed, too long) or a chunk could not be written
+    private long lastLine;       // last row of the last committed chunk; the rows up to it are created or in results
+    private String error;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private int chunks;
+    private long chunkMillisP50;
+    private long chunkMillisMax;
+    private boolean filterUsed;          // false while the email filter is still building (every email is looked up)
+    private long emailsLookedUp;         // sent to the database: the filter's "maybe" answers
+    private long filterFalsePositives;   // looked up but free
+    private List<CustomerImportRowDTO> results;  // every row not created, up to 10,000; the counts cover all of them
+}
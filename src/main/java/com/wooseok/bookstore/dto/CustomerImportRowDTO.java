@@ -0,0 +1,17 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportRowDTO {
+    private long line;           // line of the feed the row starts on
+    private String email;
+    private String status;       // DUPLICATE, EMAIL_EXISTS, INVALID or FAILED
+    private String message;
+}
@@ -19,5 +19,6 @@ public class OrderDTO {
     private String customerName;
     private List<OrderItemDTO> items;
     private BigDecimal totalAmount;
+    private String status;
     private LocalDateTime orderDate;
 }
\ No newline at end of file
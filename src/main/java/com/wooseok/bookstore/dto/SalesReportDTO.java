@@ -0,0 +1,22 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportDTO {
+    private String groupBy;
+    private LocalDate from;
+    private LocalDate to;
+    private List<SalesReportRowDTO> rows;
+    private BigDecimal totalRevenue; // sum over the returned rows
+}
@@ -0,0 +1,20 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportRowDTO {
+    private String key;     // day (yyyy-MM-dd), book id or category
+    private String label;   // book title when grouped by book
+    private long orders;
+    private long units;
+    private BigDecimal revenue;
+}
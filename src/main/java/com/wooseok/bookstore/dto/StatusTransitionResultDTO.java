@@ -0,0 +1,27 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionResultDTO {
+    private String from;
+    private String to;
+    private long updated;
+    private long skipped;        // examined but no longer in the from status (or still in the async pipeline)
+    private boolean completed;   // false when maxOrders was reached or a chunk failed
+    private Long resumeAfter;    // last order id of the last committed chunk; pass as "after" to continue
+    private String error;
+    private long durationMillis;
+    private double ordersPerSecond;
+    private long chunkMillisP50;
+    private long chunkMillisMax;
+    private List<TransitionChunkDTO> chunks;
+}
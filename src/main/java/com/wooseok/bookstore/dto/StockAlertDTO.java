@@ -0,0 +1,22 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertDTO {
+    private Long bookId;
+    private String title;
+    private String category;
+    private int threshold;       // the subscriber's threshold that was crossed
+    private int previousStock;
+    private int stockQuantity;
+    private LocalDateTime changedAt;
+}
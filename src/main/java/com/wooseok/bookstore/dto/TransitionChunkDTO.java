@@ -0,0 +1,18 @@
+package com.wooseok.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransitionChunkDTO {
+    private Long firstOrderId;
+    private Long lastOrderId;
+    private int examined;
+    private int updated;
+    private long millis;   // select + update + commit
+}
@@ -0,0 +1,7 @@
+package com.wooseok.bookstore.exception;
+
+public class OrderQueueFullException extends RuntimeException {
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,51 @@
+package com.wooseok.bookstore.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+// Application metrics on top of the Actuator defaults (http.server.requests, hikaricp.*, hibernate.*).
+// bookstore.metrics.enabled=false turns them off, e.g. to measure their overhead with the load harness.
+@Configuration
+@ConditionalOnProperty(name = "bookstore.metrics.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public ServiceTimingAspect serviceTimingAspect() {
+        return new ServiceTimingAspect(meterRegistry);
+    }
+
+    // Wraps the DataSource rather than hooking into Hibernate, so the JdbcTemplate statements (stock
+    // decrements, imports, the pending_orders claim, rollup upserts) are counted too
+    @Bean
+    static BeanPostProcessor sqlStatementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SqlStatementCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatementMetricsInterceptor(meterRegistry)).addPathPatterns("/api/**");
+    }
+}
@@ -3,6 +3,7 @@ package com.wooseok.bookstore.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
@@ -19,7 +20,9 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence: ids come 50 per round trip, so an order and its items are inserted in JDBC batches
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id")
+    @SequenceGenerator(name = "orders_id", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Customer is required")
@@ -46,7 +49,9 @@ public class Order {
     private LocalDateTime orderDate;
 
     // One-to-Many: Order can have many order items
+    // Lazy loads fetch items for up to 50 orders per query
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @Builder.Default
     private List<OrderItem> orderItems = new ArrayList<>();
 
@@ -55,6 +60,16 @@ public class Order {
         CONFIRMED,
         SHIPPED,
         DELIVERED,
-        CANCELLED
+        CANCELLED;
+
+        // Fulfillment moves one step at a time; an order can be cancelled until it ships
+        public boolean canTransitionTo(OrderStatus next) {
+            return switch (this) {
+                case PENDING -> next == CONFIRMED || next == CANCELLED;
+                case CONFIRMED -> next == SHIPPED || next == CANCELLED;
+                case SHIPPED -> next == DELIVERED;
+                case DELIVERED, CANCELLED -> false;
+            };
+        }
     }
 }
\ No newline at end of file
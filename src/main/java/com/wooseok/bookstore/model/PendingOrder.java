@@ -0,0 +1,30 @@
+package com.wooseok.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Journal of orders accepted by the async pipeline and not processed yet. Written in the same
+// transaction as the PENDING order and deleted in the transaction that confirms or cancels it,
+// so whatever is left here after a restart is exactly the work that was in flight.
+@Entity
+@Table(name = "pending_orders")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingOrder {
+
+    @Id
+    private Long orderId;
+
+    // Lowest book id in the order; picks the partition that processes it
+    @Column(nullable = false)
+    private Long partitionKey;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime acceptedAt;
+}
@@ -0,0 +1,62 @@
+package com.wooseok.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Pre-aggregated sales per day for one book, one category or the whole store. Every order adds
+// its lines to the rows of one shard (chosen from the order id), so concurrent orders do not all
+// queue on the same daily row; reports sum the shards.
+@Entity
+@Table(name = "sales_rollups")
+@IdClass(SalesRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollup {
+
+    public enum Dimension {
+        BOOK, CATEGORY, TOTAL
+    }
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate bucketDay;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Dimension dimension;
+
+    // Book id, category name, or "ALL" for the store total
+    @Id
+    @Column(nullable = false, length = 100)
+    private String dimensionKey;
+
+    @Id
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate bucketDay;
+        private Dimension dimension;
+        private String dimensionKey;
+        private Integer shard;
+    }
+}
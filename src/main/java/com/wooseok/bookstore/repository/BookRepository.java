@@ -1,20 +1,34 @@
 package com.wooseok.bookstore.repository;
 
 import com.wooseok.bookstore.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
 
     // Custom query methods - Spring generates SQL automatically!
 
     Optional<Book> findByIsbn(String isbn);
 
+    // Existing ids for a chunk of imported ISBNs (one lookup per chunk, on the isbn unique index)
+    @Query("SELECT b.id AS id, b.isbn AS isbn FROM Book b WHERE b.isbn IN :isbns")
+    List<IsbnId> findIdsByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Book> findByCategory(String category);
 
     List<Book> findByAuthor(String author);
@@ -25,6 +39,76 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     List<Book> findByAuthorContainingIgnoreCase(String author);
 
+    // SQL fallback for title/author search when the in-memory index is disabled
+    List<Book> findByTitleContainingIgnoreCase(String title, Limit limit);
+
+    List<Book> findByAuthorContainingIgnoreCase(String author, Limit limit);
+
     List<Book> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     List<Book> findByStockQuantityLessThan(int threshold);
+
+    // Keyset pagination: seek past the last id seen instead of using OFFSET
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Book> findByCategoryAndIdGreaterThanOrderByIdAsc(String category, Long after, Limit limit);
+
+    List<Book> findByPriceBetweenAndIdGreaterThanOrderByIdAsc(BigDecimal minPrice, BigDecimal maxPrice,
+                                                              Long after, Limit limit);
+
+    List<Book> findByStockQuantityLessThanAndIdGreaterThanOrderByIdAsc(int threshold, Long after, Limit limit);
+
+    // Streams the whole table for exports: rows come off a JDBC cursor 500 at a time and are
+    // loaded read-only, so the caller can clear the persistence context as it goes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAll();
+
+    // Just the fields the search index needs
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author FROM Book b")
+    Stream<SearchFields> streamSearchFields();
+
+    // Version lookups for conditional GETs, without loading full Book rows
+    @Query("SELECT b.updatedAt FROM Book b WHERE b.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    @Query("SELECT MAX(b.updatedAt) AS lastUpdated, COUNT(b) AS count FROM Book b")
+    CollectionVersion findCollectionVersion();
+
+    @Query("SELECT MAX(b.updatedAt) AS lastUpdated, COUNT(b) AS count FROM Book b WHERE b.category = :category")
+    CollectionVersion findCollectionVersionByCategory(@Param("category") String category);
+
+    // Stock levels only, without loading full Book rows
+    @Query("SELECT b.id AS id, b.stockQuantity AS stockQuantity FROM Book b")
+    List<StockLevel> findAllStockLevels();
+
+    @Query("SELECT b.stockQuantity FROM Book b WHERE b.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+
+    interface SearchFields {
+        Long getId();
+
+        String getTitle();
+
+        String getAuthor();
+    }
+
+    interface IsbnId {
+        Long getId();
+
+        String getIsbn();
+    }
+
+    interface StockLevel {
+        Long getId();
+
+        Integer getStockQuantity();
+    }
 }
\ No newline at end of file
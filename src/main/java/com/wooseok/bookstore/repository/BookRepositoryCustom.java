@@ -0,0 +1,19 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.model.Book;
+
+import java.util.List;
+import java.util.OptionalInt;
+
+public interface BookRepositoryCustom {
+
+    // Guarded stock decrement: only applies when enough stock is left, so it never oversells.
+    // Returns the stock left as the UPDATE wrote it, or empty when there was not enough.
+    OptionalInt decrementStock(Long id, int quantity);
+
+    int incrementStock(Long id, int quantity);
+
+    // Batched insert-or-update keyed on isbn, in the caller's transaction. Books without an id get
+    // one first. Existing rows take the catalog fields but keep their stock and created_at.
+    void upsertByIsbn(List<Book> books);
+}
@@ -0,0 +1,149 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.model.Book;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+// Stock updates run as plain JDBC in the surrounding transaction. A JPQL bulk UPDATE would make
+// Hibernate drop the whole Book cache region and every cached books query on each order;
+// here only the touched book is evicted: before the UPDATE, so this transaction does not read the
+// old stock from the cache, and again after commit, for readers that cached it in between. Catalog imports go the
+// same way, as batched upserts: INSERT ... ON CONFLICT on PostgreSQL, a standard MERGE on H2.
+@RequiredArgsConstructor
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    // The decrement hands back the stock it left, from the UPDATE itself rather than a second read
+    // that a concurrent order could slip in front of: RETURNING on PostgreSQL, a data change delta
+    // table on H2
+    private static final String POSTGRES_DECREMENT =
+            "UPDATE books SET stock_quantity = stock_quantity - ?, updated_at = ? " +
+                    "WHERE id = ? AND stock_quantity >= ? RETURNING stock_quantity";
+
+    private static final String FINAL_TABLE_DECREMENT =
+            "SELECT stock_quantity FROM FINAL TABLE (UPDATE books SET stock_quantity = stock_quantity - ?, updated_at = ? " +
+                    "WHERE id = ? AND stock_quantity >= ?)";
+
+    // Catalog upserts never touch stock_quantity on an existing row: stock belongs to the inventory
+    // service (and may be ahead of the table in memory mode), so a feed only sets it for new books
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO books (id, title, author, isbn, price, stock_quantity, description, category, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (isbn) DO UPDATE SET " +
+                    "title = EXCLUDED.title, author = EXCLUDED.author, price = EXCLUDED.price, " +
+                    "description = EXCLUDED.description, category = EXCLUDED.category, updated_at = EXCLUDED.updated_at";
+
+    private static final String MERGE_UPSERT =
+            "MERGE INTO books b USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(200)), CAST(? AS VARCHAR(100)), " +
+                    "CAST(? AS VARCHAR(20)), CAST(? AS DECIMAL(10, 2)), CAST(? AS INTEGER), CAST(? AS VARCHAR(1000)), " +
+                    "CAST(? AS VARCHAR(50)), CAST(? AS TIMESTAMP(6)), CAST(? AS TIMESTAMP(6)))) " +
+                    "AS d (id, title, author, isbn, price, stock_quantity, description, category, created_at, updated_at) " +
+                    "ON b.isbn = d.isbn " +
+                    "WHEN MATCHED THEN UPDATE SET title = d.title, author = d.author, price = d.price, " +
+                    "description = d.description, category = d.category, updated_at = d.updated_at " +
+                    "WHEN NOT MATCHED THEN INSERT (id, title, author, isbn, price, stock_quantity, description, category, created_at, updated_at) " +
+                    "VALUES (d.id, d.title, d.author, d.isbn, d.price, d.stock_quantity, d.description, d.category, d.created_at, d.updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public OptionalInt decrementStock(Long id, int quantity) {
+        evict(id);
+        List<Integer> remaining = jdbcTemplate.queryForList(
+                isPostgres() ? POSTGRES_DECREMENT : FINAL_TABLE_DECREMENT, Integer.class,
+                quantity, Timestamp.valueOf(LocalDateTime.now()), id, quantity);
+        if (remaining.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        evictAfterCommit(id);
+        return OptionalInt.of(remaining.get(0));
+    }
+
+    @Override
+    public int incrementStock(Long id, int quantity) {
+        evict(id);
+        int updated = jdbcTemplate.update(
+                "UPDATE books SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE id = ?",
+                quantity, Timestamp.valueOf(LocalDateTime.now()), id);
+        if (updated > 0) {
+            evictAfterCommit(id);
+        }
+        return updated;
+    }
+
+    @Override
+    public void upsertByIsbn(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        EntityIds.assign(entityManagerFactory, Book.class, books, Book::getId, Book::setId);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(books.size());
+        List<Long> ids = new ArrayList<>(books.size());
+        for (Book book : books) {
+            batchArgs.add(new Object[]{
+                    book.getId(),
+                    book.getTitle(),
+                    book.getAuthor(),
+                    book.getIsbn(),
+                    book.getPrice(),
+                    book.getStockQuantity(),
+                    book.getDescription(),
+                    book.getCategory(),
+                    now,
+                    now
+            });
+            ids.add(book.getId());
+        }
+        jdbcTemplate.batchUpdate(isPostgres() ? POSTGRES_UPSERT : MERGE_UPSERT, batchArgs);
+
+        // New rows can belong in cached books queries (e.g. by category), so those go as well
+        afterCommit(() -> {
+            ids.forEach(id -> entityManagerFactory.getCache().evict(Book.class, id));
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        });
+    }
+
+    private void evict(Long id) {
+        entityManagerFactory.getCache().evict(Book.class, id);
+    }
+
+    private void evictAfterCommit(Long id) {
+        afterCommit(() -> evict(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,11 @@
+package com.wooseok.bookstore.repository;
+
+import java.time.LocalDateTime;
+
+// Projection used to derive collection-level ETags: any insert, update or delete changes one of the two
+public interface CollectionVersion {
+
+    LocalDateTime getLastUpdated();
+
+    Long getCount();
+}
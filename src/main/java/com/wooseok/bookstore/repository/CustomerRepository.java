@@ -1,15 +1,53 @@
 package com.wooseok.bookstore.repository;
 
 import com.wooseok.bookstore.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerRepositoryCustom {
 
     Optional<Customer> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // Which of a chunk of imported emails are taken (one lookup per chunk, on the email unique index)
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    // Keyset pagination: seek past the last id seen instead of using OFFSET
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // Version lookups for conditional GETs, without loading full Customer rows
+    @Query("SELECT c.updatedAt FROM Customer c WHERE c.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    @Query("SELECT MAX(c.updatedAt) AS lastUpdated, COUNT(c) AS count FROM Customer c")
+    CollectionVersion findCollectionVersion();
+
+    // Streams the whole table for exports: rows come off a JDBC cursor 500 at a time and are
+    // loaded read-only, so the caller can clear the persistence context as it goes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Customer c ORDER BY c.id")
+    Stream<Customer> streamAll();
+
+    // Every email, for the import's Bloom filter
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.email FROM Customer c")
+    Stream<String> streamEmails();
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.model.Customer;
+
+import java.util.List;
+
+public interface CustomerRepositoryCustom {
+
+    // Batched plain INSERTs in the caller's transaction; customers without an id get one first.
+    // A taken email fails the batch with a DuplicateKeyException, as a save would.
+    void insertAll(List<Customer> customers);
+}
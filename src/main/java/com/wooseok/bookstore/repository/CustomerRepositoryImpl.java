@@ -0,0 +1,48 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.model.Customer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bulk customer imports write plain JDBC batches instead of persisting entities one by one, so a
+// chunk of new customers is one batched statement and the persistence context stays empty
+@RequiredArgsConstructor
+public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+
+    private static final String INSERT =
+            "INSERT INTO customers (id, first_name, last_name, email, phone_number, address, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void insertAll(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return;
+        }
+        EntityIds.assign(entityManagerFactory, Customer.class, customers, Customer::getId, Customer::setId);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            batchArgs.add(new Object[]{
+                    customer.getId(),
+                    customer.getFirstName(),
+                    customer.getLastName(),
+                    customer.getEmail(),
+                    customer.getPhoneNumber(),
+                    customer.getAddress(),
+                    now,
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT, batchArgs);
+    }
+}
@@ -0,0 +1,35 @@
+package com.wooseok.bookstore.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Ids for rows written with plain JDBC, drawn from Hibernate's own generator for the entity: they
+// come out of the same pooled sequence blocks as entities saved through JPA, so the two never collide
+final class EntityIds {
+
+    private EntityIds() {
+    }
+
+    // Gives every entity without an id the next one; a sequence call per allocationSize ids
+    static <T> void assign(EntityManagerFactory entityManagerFactory, Class<T> entityClass, List<T> entities,
+                           Function<T, Long> getId, BiConsumer<T, Long> setId) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(entityClass)
+                .getGenerator();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (T entity : entities) {
+                if (getId.apply(entity) == null) {
+                    setId.accept(entity, (Long) generator.generate((SharedSessionContractImplementor) session, entity));
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.wooseok.bookstore.repository;
 
+import com.wooseok.bookstore.model.Order;
 import com.wooseok.bookstore.model.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
@@ -13,4 +23,40 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByBookId(Long bookId);
 
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.book WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItem> findByOrderIdInWithBook(@Param("orderIds") Collection<Long> orderIds);
+
+    // Every line of a customer's orders in one statement, ahead of deleting the customer
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.order.id IN (SELECT o.id FROM Order o WHERE o.customer.id = :customerId)")
+    int deleteByCustomerId(@Param("customerId") Long customerId);
+
+    // Line quantities of non-cancelled orders since a point in time, for the bestseller tracker.
+    // Async orders still in pending_orders are left out until they are confirmed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b.id AS bookId, b.title AS title, b.author AS author, b.category AS category, " +
+            "i.quantity AS quantity, o.orderDate AS orderDate FROM OrderItem i JOIN i.order o JOIN i.book b " +
+            "WHERE o.orderDate >= :since AND o.orderDate < :until " +
+            "AND o.status <> :excluded " +
+            "AND NOT EXISTS (SELECT p FROM PendingOrder p WHERE p.orderId = o.id)")
+    Stream<SoldLine> streamSoldLines(@Param("since") LocalDateTime since,
+                                     @Param("until") LocalDateTime until,
+                                     @Param("excluded") Order.OrderStatus excluded);
+
+    interface SoldLine {
+        Long getBookId();
+
+        String getTitle();
+
+        String getAuthor();
+
+        String getCategory();
+
+        Integer getQuantity();
+
+        LocalDateTime getOrderDate();
+    }
 }
\ No newline at end of file
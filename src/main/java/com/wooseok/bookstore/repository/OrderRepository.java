@@ -1,17 +1,86 @@
 package com.wooseok.bookstore.repository;
 
 import com.wooseok.bookstore.model.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByCustomerId(Long customerId);
 
+    // pending_orders rows go with them (ON DELETE CASCADE)
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.customer.id = :customerId")
+    int deleteByCustomerId(@Param("customerId") Long customerId);
+
     List<Order> findByStatus(Order.OrderStatus status);
 
+    // Bulk status transitions: keyset scan of one status, then a guarded set-based UPDATE of that chunk.
+    // Orders still waiting in the async pipeline (pending_orders) have no stock reserved yet and are left alone.
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.id > :after " +
+            "AND NOT EXISTS (SELECT p FROM PendingOrder p WHERE p.orderId = o.id) ORDER BY o.id")
+    List<Long> findTransitionableIdsAfter(@Param("status") Order.OrderStatus status, @Param("after") Long after, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to WHERE o.id IN :ids AND o.status = :from " +
+            "AND NOT EXISTS (SELECT p FROM PendingOrder p WHERE p.orderId = o.id)")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") Order.OrderStatus from,
+                     @Param("to") Order.OrderStatus to);
+
+    // Status polling for async orders, without loading the order
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<Order.OrderStatus> findStatusById(@Param("id") Long id);
+
     List<Order> findByCustomerIdOrderByOrderDateDesc(Long customerId);
-}
\ No newline at end of file
+
+    // Read paths fetch customer, items and books in one statement, so mapping to OrderDTO
+    // never falls back to lazy loading (no 1 + N + N*M queries)
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer " +
+            "LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.book")
+    List<Order> findAllWithDetails();
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer " +
+            "LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.book " +
+            "WHERE o.id = :id")
+    Optional<Order> findByIdWithDetails(@Param("id") Long id);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer " +
+            "LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.book " +
+            "WHERE o.customer.id = :customerId")
+    List<Order> findByCustomerIdWithDetails(@Param("customerId") Long customerId);
+
+    // Streams every order with its customer for exports; items are loaded per chunk of orders
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer ORDER BY o.id")
+    Stream<Order> streamAllWithCustomer();
+
+    // Keyset pagination in two steps: seek the page of ids, then fetch those orders with their details.
+    // Limiting a collection fetch join directly would make Hibernate paginate in memory.
+    @Query("SELECT o.id FROM Order o WHERE o.id > :after ORDER BY o.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT o.id FROM Order o WHERE o.customer.id = :customerId AND o.id > :after ORDER BY o.id")
+    List<Long> findIdsByCustomerIdAfter(@Param("customerId") Long customerId, @Param("after") Long after, Limit limit);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer " +
+            "LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.book " +
+            "WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+}
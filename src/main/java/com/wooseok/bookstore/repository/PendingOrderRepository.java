@@ -0,0 +1,15 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.model.PendingOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingOrderRepository extends JpaRepository<PendingOrder, Long>, PendingOrderRepositoryCustom {
+
+    // Work left over from before a restart, oldest first
+    List<PendingOrder> findByAcceptedAtBeforeOrderByOrderIdAsc(LocalDateTime acceptedBefore);
+}
@@ -0,0 +1,11 @@
+package com.wooseok.bookstore.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PendingOrderRepositoryCustom {
+
+    // Deletes the journal entries of these orders in the caller's transaction and returns the ids
+    // whose entry this call deleted. Only those orders may be processed.
+    List<Long> claim(Collection<Long> orderIds);
+}
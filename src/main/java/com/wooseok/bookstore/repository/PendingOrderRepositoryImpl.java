@@ -0,0 +1,38 @@
+package com.wooseok.bookstore.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+// An order is claimed by deleting its journal entry, one guarded DELETE per order in a single JDBC
+// batch. A second worker given the same id (e.g. one re-queued at startup while its first run is
+// still going) waits on the row lock, then deletes nothing once the first commits, so each order
+// is processed once. Ids are deleted in ascending order, so two claimers cannot deadlock.
+@RequiredArgsConstructor
+public class PendingOrderRepositoryImpl implements PendingOrderRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> claim(Collection<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(new TreeSet<>(orderIds));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(ids.size());
+        ids.forEach(id -> batchArgs.add(new Object[]{id}));
+
+        int[] deleted = jdbcTemplate.batchUpdate("DELETE FROM pending_orders WHERE order_id = ?", batchArgs);
+        List<Long> claimed = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (deleted[i] == 1) {
+                claimed.add(ids.get(i));
+            }
+        }
+        return claimed;
+    }
+}
@@ -0,0 +1,50 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.model.SalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key>, SalesRollupRepositoryCustom {
+
+    // Totals per book or category over a day range, best sellers by revenue first
+    @Query("SELECT r.dimensionKey AS dimensionKey, SUM(r.orderCount) AS orders, SUM(r.units) AS units, " +
+            "SUM(r.revenue) AS revenue FROM SalesRollup r " +
+            "WHERE r.dimension = :dimension AND r.bucketDay BETWEEN :from AND :to " +
+            "GROUP BY r.dimensionKey ORDER BY SUM(r.revenue) DESC")
+    List<SalesTotals> sumByKey(@Param("dimension") SalesRollup.Dimension dimension,
+                               @Param("from") LocalDate from,
+                               @Param("to") LocalDate to,
+                               Pageable pageable);
+
+    // Totals per day over one dimension; TOTAL is the store as a whole
+    @Query("SELECT r.bucketDay AS day, SUM(r.orderCount) AS orders, SUM(r.units) AS units, " +
+            "SUM(r.revenue) AS revenue FROM SalesRollup r " +
+            "WHERE r.dimension = :dimension " +
+            "AND r.bucketDay BETWEEN :from AND :to " +
+            "GROUP BY r.bucketDay ORDER BY r.bucketDay")
+    List<DailySalesTotals> sumByDay(@Param("dimension") SalesRollup.Dimension dimension,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+
+    interface SalesTotals {
+        String getDimensionKey();
+        Long getOrders();
+        Long getUnits();
+        BigDecimal getRevenue();
+    }
+
+    interface DailySalesTotals {
+        LocalDate getDay();
+        Long getOrders();
+        Long getUnits();
+        BigDecimal getRevenue();
+    }
+}
@@ -0,0 +1,14 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.model.SalesRollup;
+
+import java.util.List;
+
+public interface SalesRollupRepositoryCustom {
+
+    // Adds each delta's counts to its row, creating missing rows
+    void addSales(List<SalesRollup> deltas);
+
+    // Replaces every rollup row with aggregates recomputed from orders and order_items
+    int rebuildFromOrders();
+}
@@ -0,0 +1,137 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.model.SalesRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Rollup rows are written with plain JDBC upserts in the caller's transaction: PostgreSQL's
+// INSERT ... ON CONFLICT, or a standard MERGE on the embedded H2 database
+@RequiredArgsConstructor
+public class SalesRollupRepositoryImpl implements SalesRollupRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO sales_rollups (bucket_day, dimension, dimension_key, shard, order_count, units, revenue) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (bucket_day, dimension, dimension_key, shard) DO UPDATE SET " +
+                    "order_count = sales_rollups.order_count + EXCLUDED.order_count, " +
+                    "units = sales_rollups.units + EXCLUDED.units, " +
+                    "revenue = sales_rollups.revenue + EXCLUDED.revenue";
+
+    private static final String MERGE_UPSERT =
+            "MERGE INTO sales_rollups r USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(20)), " +
+                    "CAST(? AS VARCHAR(100)), CAST(? AS INTEGER), CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+                    "CAST(? AS DECIMAL(14, 2)))) AS d (bucket_day, dimension, dimension_key, shard, order_count, units, revenue) " +
+                    "ON r.bucket_day = d.bucket_day AND r.dimension = d.dimension " +
+                    "AND r.dimension_key = d.dimension_key AND r.shard = d.shard " +
+                    "WHEN MATCHED THEN UPDATE SET order_count = r.order_count + d.order_count, " +
+                    "units = r.units + d.units, revenue = r.revenue + d.revenue " +
+                    "WHEN NOT MATCHED THEN INSERT (bucket_day, dimension, dimension_key, shard, order_count, units, revenue) " +
+                    "VALUES (d.bucket_day, d.dimension, d.dimension_key, d.shard, d.order_count, d.units, d.revenue)";
+
+    // Cancelled orders are left out of the rebuilt figures, and so are async orders still in the
+    // pending_orders journal: they have no stock yet and are counted when they are confirmed
+    private static final String[] REBUILD_STATEMENTS = {
+            "INSERT INTO sales_rollups (bucket_day, dimension, dimension_key, shard, order_count, units, revenue) " +
+                    "SELECT CAST(o.order_date AS DATE), 'BOOK', CAST(oi.book_id AS VARCHAR(100)), 0, " +
+                    "COUNT(DISTINCT o.id), SUM(oi.quantity), SUM(oi.price * oi.quantity) " +
+                    "FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+                    "WHERE o.status <> 'CANCELLED' " +
+                    "AND NOT EXISTS (SELECT 1 FROM pending_orders p WHERE p.order_id = o.id) " +
+                    "GROUP BY CAST(o.order_date AS DATE), oi.book_id",
+            "INSERT INTO sales_rollups (bucket_day, dimension, dimension_key, shard, order_count, units, revenue) " +
+                    "SELECT CAST(o.order_date AS DATE), 'CATEGORY', b.category, 0, " +
+                    "COUNT(DISTINCT o.id), SUM(oi.quantity), SUM(oi.price * oi.quantity) " +
+                    "FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN books b ON b.id = oi.book_id " +
+                    "WHERE o.status <> 'CANCELLED' " +
+                    "AND NOT EXISTS (SELECT 1 FROM pending_orders p WHERE p.order_id = o.id) " +
+                    "GROUP BY CAST(o.order_date AS DATE), b.category",
+            "INSERT INTO sales_rollups (bucket_day, dimension, dimension_key, shard, order_count, units, revenue) " +
+                    "SELECT CAST(o.order_date AS DATE), 'TOTAL', 'ALL', 0, " +
+                    "COUNT(DISTINCT o.id), SUM(oi.quantity), SUM(oi.price * oi.quantity) " +
+                    "FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+                    "WHERE o.status <> 'CANCELLED' " +
+                    "AND NOT EXISTS (SELECT 1 FROM pending_orders p WHERE p.order_id = o.id) " +
+                    "GROUP BY CAST(o.order_date AS DATE)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReentrantLock embeddedWriteLock = new ReentrantLock();
+
+    private volatile Boolean postgres;
+
+    @Override
+    public void addSales(List<SalesRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        for (SalesRollup delta : deltas) {
+            batchArgs.add(new Object[]{
+                    Date.valueOf(delta.getBucketDay()),
+                    delta.getDimension().name(),
+                    delta.getDimensionKey(),
+                    delta.getShard(),
+                    delta.getOrderCount(),
+                    delta.getUnits(),
+                    delta.getRevenue()
+            });
+        }
+        if (isPostgres()) {
+            jdbcTemplate.batchUpdate(POSTGRES_UPSERT, batchArgs);
+        } else {
+            lockEmbeddedWrites();
+            jdbcTemplate.batchUpdate(MERGE_UPSERT, batchArgs);
+        }
+    }
+
+    // H2's MERGE checks for the row and then inserts it, so two orders adding the first sale of a key
+    // can both take the insert branch and one fails on the primary key. H2 only runs embedded in this
+    // JVM, so its rollup writers take turns instead: the lock is held until the transaction completes.
+    private void lockEmbeddedWrites() {
+        if (embeddedWriteLock.isHeldByCurrentThread()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                embeddedWriteLock.unlock();
+            }
+        });
+        embeddedWriteLock.lock();
+    }
+
+    @Override
+    public int rebuildFromOrders() {
+        // Orders still writing their rollups finish first, and later ones wait for the rebuild to
+        // commit, so no order is lost or counted twice
+        if (isPostgres()) {
+            jdbcTemplate.execute("LOCK TABLE sales_rollups IN EXCLUSIVE MODE");
+        } else {
+            lockEmbeddedWrites();
+        }
+        jdbcTemplate.update("DELETE FROM sales_rollups");
+
+        int rows = 0;
+        for (String statement : REBUILD_STATEMENTS) {
+            rows += jdbcTemplate.update(statement);
+        }
+        return rows;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"));
+        }
+        return postgres;
+    }
+}
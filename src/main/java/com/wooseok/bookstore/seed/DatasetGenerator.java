@@ -0,0 +1,295 @@
+package com.wooseok.bookstore.seed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Seeds books, customers, orders and order_items with a large, skewed dataset through batched
+// JDBC inserts (run with the "seed" profile). Rows get explicit ids after the current maximum,
+// and the id sequences are moved past them at the end.
+@Slf4j
+@Component
+@Profile("seed")
+@RequiredArgsConstructor
+@EnableConfigurationProperties(SeedProperties.class)
+public class DatasetGenerator implements CommandLineRunner {
+
+    // allocationSize of the entities' id sequences
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String[] GENRES = {
+            "Fiction", "Mystery", "Science", "History", "Biography", "Fantasy", "Romance", "Travel",
+            "Poetry", "Business", "Children", "Cooking", "Art", "Philosophy", "Health", "Technology",
+            "Thriller", "Horror", "Religion", "Sports"
+    };
+    private static final String[] WORDS = {
+            "river", "silent", "garden", "empire", "winter", "glass", "northern", "letters", "machine",
+            "harbor", "shadow", "orchard", "distant", "crown", "paper", "storm", "golden", "city",
+            "forgotten", "light", "house", "secret", "ocean", "midnight", "stone", "wild", "last", "road"
+    };
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David",
+            "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Minjun", "Seoyeon",
+            "Wei", "Aiko", "Carlos", "Lucia", "Ahmed", "Fatima", "Ivan", "Olga", "Kwame", "Amara"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+            "Martinez", "Kim", "Lee", "Park", "Chen", "Wang", "Tanaka", "Sato", "Silva", "Santos",
+            "Ivanov", "Mensah", "Okafor", "Khan", "Ali", "Novak", "Horvat", "Nielsen", "Murphy"
+    };
+    private static final String[] STREETS = {
+            "Main Street", "Oak Avenue", "Maple Drive", "Cedar Lane", "Pine Road", "Elm Street",
+            "Lakeview Boulevard", "Hillside Court", "River Road", "Sunset Avenue"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SeedProperties properties;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(String... args) {
+        long startedAt = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(properties.getRandomSeed());
+
+        long firstBookId = nextId("books");
+        long firstCustomerId = nextId("customers");
+        long firstOrderId = nextId("orders");
+        long firstOrderItemId = nextId("order_items");
+
+        List<BigDecimal> bookPrices = insertBooks(random.split(), firstBookId);
+        insertCustomers(random.split(), firstCustomerId);
+        long orderItems = insertOrders(random.split(), bookPrices, firstBookId, firstCustomerId,
+                firstOrderId, firstOrderItemId);
+
+        advanceSequence("books_seq", firstBookId + properties.getBooks());
+        advanceSequence("customers_seq", firstCustomerId + properties.getCustomers());
+        advanceSequence("orders_seq", firstOrderId + properties.getOrders());
+        advanceSequence("order_items_seq", firstOrderItemId + orderItems);
+
+        log.info("Seeded {} books, {} customers, {} orders and {} order items in {} s",
+                properties.getBooks(), properties.getCustomers(), properties.getOrders(), orderItems,
+                (System.nanoTime() - startedAt) / 1_000_000_000);
+
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    // Returns each book's price, indexed by id offset, for pricing the order items
+    private List<BigDecimal> insertBooks(SplittableRandom random, long firstId) {
+        int count = properties.getBooks();
+        String[] categories = categories(properties.getCategories());
+        ZipfSampler categorySampler = new ZipfSampler(categories.length, 0.8);
+        int authorCount = Math.max(1, count / 6);
+        Timestamp now = Timestamp.valueOf(endDate().atStartOfDay());
+
+        List<BigDecimal> prices = new ArrayList<>(count);
+        List<Object[]> batch = new ArrayList<>(properties.getBatchSize());
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            BigDecimal price = BigDecimal.valueOf(random.nextLong(499, 8_000), 2);
+            prices.add(price);
+
+            batch.add(new Object[]{
+                    id,
+                    title(random),
+                    personName(random.nextInt(authorCount)),
+                    String.format("978%010d", id),
+                    price,
+                    random.nextInt(0, 200) + (i % 100 == 0 ? 1_000 : 0),
+                    sentence(random, 30),
+                    categories[categorySampler.sample(random)],
+                    now,
+                    now
+            });
+            if (batch.size() == properties.getBatchSize() || i == count - 1) {
+                insert("INSERT INTO books (id, title, author, isbn, price, stock_quantity, description, category, " +
+                        "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+            }
+        }
+        log.info("Inserted {} books", count);
+        return prices;
+    }
+
+    private void insertCustomers(SplittableRandom random, long firstId) {
+        int count = properties.getCustomers();
+        Timestamp now = Timestamp.valueOf(endDate().atStartOfDay());
+
+        List<Object[]> batch = new ArrayList<>(properties.getBatchSize());
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            batch.add(new Object[]{
+                    id,
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    "customer" + id + "@example.com",
+                    String.format("+1 (555) %03d-%04d", random.nextInt(1000), random.nextInt(10_000)),
+                    address(id),
+                    now,
+                    now
+            });
+            if (batch.size() == properties.getBatchSize() || i == count - 1) {
+                insert("INSERT INTO customers (id, first_name, last_name, email, phone_number, address, " +
+                        "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+            }
+        }
+        log.info("Inserted {} customers", count);
+    }
+
+    // Orders are spread evenly over the history window in id order. Customers and books are drawn
+    // from Zipf distributions whose ranks are shuffled onto ids, so popular rows are not just the lowest ids.
+    private long insertOrders(SplittableRandom random, List<BigDecimal> bookPrices, long firstBookId,
+                              long firstCustomerId, long firstOrderId, long firstOrderItemId) {
+        int count = properties.getOrders();
+        int[] bookByRank = shuffledRanks(properties.getBooks(), random);
+        int[] customerByRank = shuffledRanks(properties.getCustomers(), random);
+        ZipfSampler bookSampler = new ZipfSampler(properties.getBooks(), properties.getBookSkew());
+        ZipfSampler customerSampler = new ZipfSampler(properties.getCustomers(), properties.getCustomerSkew());
+
+        LocalDateTime end = endDate().atStartOfDay();
+        long historySeconds = properties.getOrderHistoryDays() * 86_400L;
+
+        long itemId = firstOrderItemId;
+        List<Object[]> orders = new ArrayList<>(properties.getBatchSize());
+        List<Object[]> items = new ArrayList<>(properties.getBatchSize() * properties.getMaxItemsPerOrder());
+        for (int i = 0; i < count; i++) {
+            long orderId = firstOrderId + i;
+            long customerId = firstCustomerId + customerByRank[customerSampler.sample(random)];
+            long secondsBeforeEnd = historySeconds - (historySeconds * i / count) - random.nextLong(0, 3_600);
+            LocalDateTime orderDate = end.minusSeconds(Math.max(1, secondsBeforeEnd));
+
+            BigDecimal total = BigDecimal.ZERO;
+            int itemCount = random.nextInt(1, properties.getMaxItemsPerOrder() + 1);
+            for (int j = 0; j < itemCount; j++) {
+                int bookOffset = bookByRank[bookSampler.sample(random)];
+                int quantity = random.nextInt(1, 4);
+                BigDecimal price = bookPrices.get(bookOffset);
+                total = total.add(price.multiply(BigDecimal.valueOf(quantity)));
+                items.add(new Object[]{itemId++, orderId, firstBookId + bookOffset, quantity, price});
+            }
+
+            orders.add(new Object[]{
+                    orderId,
+                    customerId,
+                    total,
+                    status(random, orderDate, end),
+                    address(customerId),
+                    Timestamp.valueOf(orderDate)
+            });
+            if (orders.size() == properties.getBatchSize() || i == count - 1) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate("INSERT INTO orders (id, customer_id, total_amount, status, " +
+                            "shipping_address, order_date) VALUES (?, ?, ?, ?, ?, ?)", orders);
+                    jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, book_id, quantity, price) " +
+                            "VALUES (?, ?, ?, ?, ?)", items);
+                });
+                orders.clear();
+                items.clear();
+                log.info("Inserted {} of {} orders", i + 1, count);
+            }
+        }
+        return itemId - firstOrderItemId;
+    }
+
+    // Older orders have been delivered (a few cancelled); recent ones are still moving
+    private static String status(SplittableRandom random, LocalDateTime orderDate, LocalDateTime end) {
+        if (random.nextInt(100) < 4) {
+            return "CANCELLED";
+        }
+        if (orderDate.isBefore(end.minusDays(14))) {
+            return "DELIVERED";
+        }
+        if (orderDate.isBefore(end.minusDays(3))) {
+            return "SHIPPED";
+        }
+        return random.nextBoolean() ? "CONFIRMED" : "PENDING";
+    }
+
+    private void insert(String sql, List<Object[]> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+        batch.clear();
+    }
+
+    private long nextId(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return maxId == null ? 1 : maxId + 1;
+    }
+
+    // Rows were written with explicit ids, so the sequence has to skip past them. Hibernate's pooled
+    // optimizer hands out the ALLOCATION_SIZE ids ending at the value it reads, hence the offset.
+    private void advanceSequence(String sequence, long nextId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (nextId + ALLOCATION_SIZE - 1));
+    }
+
+    private LocalDate endDate() {
+        return properties.getEndDate() != null ? properties.getEndDate() : LocalDate.now();
+    }
+
+    private static int[] shuffledRanks(int n, SplittableRandom random) {
+        int[] ranks = new int[n];
+        for (int i = 0; i < n; i++) {
+            ranks[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = swap;
+        }
+        return ranks;
+    }
+
+    private static String[] categories(int count) {
+        String[] categories = new String[count];
+        for (int i = 0; i < count; i++) {
+            categories[i] = i < GENRES.length ? GENRES[i] : GENRES[i % GENRES.length] + " " + (i / GENRES.length + 1);
+        }
+        return categories;
+    }
+
+    private static String title(SplittableRandom random) {
+        int words = random.nextInt(2, 6);
+        StringBuilder title = new StringBuilder(capitalize(WORDS[random.nextInt(WORDS.length)]));
+        for (int i = 1; i < words; i++) {
+            title.append(' ').append(capitalize(WORDS[random.nextInt(WORDS.length)]));
+        }
+        return title.toString();
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder(capitalize(WORDS[random.nextInt(WORDS.length)]));
+        for (int i = 1; i < words; i++) {
+            sentence.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.append('.').toString();
+    }
+
+    private static String personName(int index) {
+        return FIRST_NAMES[index % FIRST_NAMES.length] + " " + LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+    }
+
+    // Derived from the id so shipping addresses match the customer without keeping customers in memory
+    private static String address(long customerId) {
+        return (customerId * 7_919 % 9_999 + 1) + " " + STREETS[(int) (customerId % STREETS.length)] + ", Springfield";
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,34 @@
+package com.wooseok.bookstore.seed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+
+// Shape of the generated dataset (bookstore.seed.*)
+@Data
+@ConfigurationProperties(prefix = "bookstore.seed")
+public class SeedProperties {
+
+    // Same seed and settings give the same rows
+    private long randomSeed = 42;
+
+    private int books = 100_000;
+    private int customers = 50_000;
+    private int orders = 500_000;
+    private int maxItemsPerOrder = 5;
+    private int categories = 40;
+
+    // Zipf exponents: book popularity across order items, and order count across customers
+    private double bookSkew = 1.1;
+    private double customerSkew = 0.9;
+
+    // Orders are spread over this many days, ending the day before endDate (default: today)
+    private int orderHistoryDays = 365;
+    private LocalDate endDate;
+
+    private int batchSize = 5_000;
+
+    // Shut the application down once the data is written
+    private boolean exitWhenDone = true;
+}
@@ -0,0 +1,15 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BestsellersDTO;
+import com.wooseok.bookstore.model.Order;
+
+import java.util.List;
+
+public interface BestsellerService {
+
+    // Counts the orders' lines once their transaction commits
+    void recordOrders(List<Order> orders);
+
+    // window is hour, day or week; category is optional. Served from memory.
+    BestsellersDTO getBestsellers(String window, String category, int limit);
+}
@@ -0,0 +1,255 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BestsellerDTO;
+import com.wooseok.bookstore.dto.BestsellersDTO;
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.model.OrderItem;
+import com.wooseok.bookstore.repository.OrderItemRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Exact units sold per book over the last hour, day and week, kept in memory. Sales go into
+// 5-minute buckets of LongAdder counters in a ring that covers one week. A scheduled refresh
+// sums the buckets and publishes the top K books per window, overall and per category, as an
+// immutable snapshot behind a volatile field; reads only slice that snapshot and never touch
+// the counters, so they cost O(K) and do not contend with order writes.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BestsellerServiceImpl implements BestsellerService {
+
+    public enum Window {
+        HOUR(12), DAY(12 * 24), WEEK(12 * 24 * 7);
+
+        // Buckets in the window, the current (partial) bucket included
+        private final int buckets;
+
+        Window(int buckets) {
+            this.buckets = buckets;
+        }
+    }
+
+    private static final long BUCKET_SECONDS = 5 * 60;
+    private static final int RING_SIZE = Window.WEEK.buckets;
+    private static final String ALL_CATEGORIES = "";
+
+    // Heap order for the top K: fewest units first, higher book id first on ties
+    private static final Comparator<Map.Entry<Long, Long>> LEAST_SOLD_FIRST =
+            Map.Entry.<Long, Long>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Long>comparingByKey().reversed());
+
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bookstore.bestsellers.top-k:100}")
+    private int topK;
+
+    private final AtomicReferenceArray<Bucket> ring = new AtomicReferenceArray<>(RING_SIZE);
+    private final Map<Long, BookInfo> books = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(LocalDateTime.now(), new EnumMap<>(Window.class));
+
+    @Override
+    public void recordOrders(List<Order> orders) {
+        // Capture the lines now, while the order and its books are loaded; count them after commit
+        List<Sale> sales = new ArrayList<>();
+        for (Order order : orders) {
+            long bucket = bucketOf(order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now());
+            for (OrderItem item : order.getOrderItems()) {
+                Book book = item.getBook();
+                books.put(book.getId(), new BookInfo(book.getTitle(), book.getAuthor(), book.getCategory()));
+                sales.add(new Sale(book.getId(), item.getQuantity(), bucket));
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sales.forEach(sale -> add(sale.bookId(), sale.quantity(), sale.bucket()));
+                }
+            });
+        } else {
+            sales.forEach(sale -> add(sale.bookId(), sale.quantity(), sale.bucket()));
+        }
+    }
+
+    @Override
+    public BestsellersDTO getBestsellers(String window, String category, int limit) {
+        Window parsedWindow = parseWindow(window);
+        if (limit < 1 || limit > topK) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + topK);
+        }
+
+        Snapshot current = snapshot;
+        List<BestsellerDTO> ranking = current.rankings()
+                .getOrDefault(parsedWindow, Map.of())
+                .getOrDefault(category != null ? category : ALL_CATEGORIES, List.of());
+
+        return BestsellersDTO.builder()
+                .window(parsedWindow.name().toLowerCase(Locale.ROOT))
+                .category(category)
+                .asOf(current.asOf())
+                .books(ranking.subList(0, Math.min(limit, ranking.size())))
+                .build();
+    }
+
+    // Replays the last week of orders into the ring, then publishes the first snapshot. Runs while the
+    // context starts, before the web server and the order pipeline take orders: every order the
+    // replay reads was committed before any recordOrders call, which counts only the ones after it.
+    @PostConstruct
+    void rebuild() {
+        LocalDateTime until = LocalDateTime.now();
+        LocalDateTime since = until.minusSeconds(RING_SIZE * BUCKET_SECONDS);
+        long[] lines = new long[1];
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<OrderItemRepository.SoldLine> rows = orderItemRepository.streamSoldLines(since, until, Order.OrderStatus.CANCELLED)) {
+                rows.forEach(row -> {
+                    books.putIfAbsent(row.getBookId(), new BookInfo(row.getTitle(), row.getAuthor(), row.getCategory()));
+                    add(row.getBookId(), row.getQuantity(), bucketOf(row.getOrderDate()));
+                    lines[0]++;
+                });
+            }
+        });
+        refresh();
+        log.info("Bestseller tracker rebuilt from {} order lines", lines[0]);
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.bestsellers.refresh-interval-ms:5000}",
+            initialDelayString = "${bookstore.bestsellers.refresh-interval-ms:5000}")
+    public void refresh() {
+        long currentBucket = bucketOf(LocalDateTime.now());
+
+        // One pass over the ring fills all three windows
+        Map<Window, Map<Long, Long>> totals = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            totals.put(window, new HashMap<>());
+        }
+        for (int slot = 0; slot < RING_SIZE; slot++) {
+            Bucket bucket = ring.get(slot);
+            if (bucket == null) {
+                continue;
+            }
+            long age = currentBucket - bucket.index();
+            if (age < 0 || age >= RING_SIZE) {
+                continue;
+            }
+            bucket.units().forEach((bookId, units) -> {
+                long sold = units.sum();
+                for (Window window : Window.values()) {
+                    if (age < window.buckets) {
+                        totals.get(window).merge(bookId, sold, Long::sum);
+                    }
+                }
+            });
+        }
+
+        Map<Window, Map<String, List<BestsellerDTO>>> rankings = new EnumMap<>(Window.class);
+        totals.forEach((window, units) -> rankings.put(window, rank(units)));
+        snapshot = new Snapshot(LocalDateTime.now(), rankings);
+    }
+
+    // Top K overall and per category, each kept in a bounded min-heap
+    private Map<String, List<BestsellerDTO>> rank(Map<Long, Long> units) {
+        Map<String, PriorityQueue<Map.Entry<Long, Long>>> heaps = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : units.entrySet()) {
+            BookInfo info = books.get(entry.getKey());
+            offer(heaps.computeIfAbsent(ALL_CATEGORIES, c -> new PriorityQueue<>(LEAST_SOLD_FIRST)), entry);
+            if (info != null && info.category() != null) {
+                offer(heaps.computeIfAbsent(info.category(), c -> new PriorityQueue<>(LEAST_SOLD_FIRST)), entry);
+            }
+        }
+
+        Map<String, List<BestsellerDTO>> ranking = new HashMap<>();
+        heaps.forEach((category, heap) -> {
+            List<Map.Entry<Long, Long>> entries = new ArrayList<>(heap);
+            entries.sort(LEAST_SOLD_FIRST.reversed());
+            ranking.put(category, entries.stream().map(this::toDTO).collect(Collectors.toList()));
+        });
+        return ranking;
+    }
+
+    private void offer(PriorityQueue<Map.Entry<Long, Long>> heap, Map.Entry<Long, Long> entry) {
+        heap.offer(entry);
+        if (heap.size() > topK) {
+            heap.poll();
+        }
+    }
+
+    private BestsellerDTO toDTO(Map.Entry<Long, Long> entry) {
+        BookInfo info = books.get(entry.getKey());
+        return BestsellerDTO.builder()
+                .bookId(entry.getKey())
+                .title(info != null ? info.title() : null)
+                .author(info != null ? info.author() : null)
+                .category(info != null ? info.category() : null)
+                .units(entry.getValue())
+                .build();
+    }
+
+    private void add(Long bookId, int quantity, long index) {
+        int slot = (int) Math.floorMod(index, (long) RING_SIZE);
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.index() == index) {
+                bucket.units().computeIfAbsent(bookId, id -> new LongAdder()).add(quantity);
+                return;
+            }
+            if (bucket != null && bucket.index() > index) {
+                // Older than the ring, outside every window
+                return;
+            }
+            // Slot still holds an expired bucket: replace it, or retry if another thread did first
+            ring.compareAndSet(slot, bucket, new Bucket(index, new ConcurrentHashMap<>()));
+        }
+    }
+
+    private static long bucketOf(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / BUCKET_SECONDS;
+    }
+
+    private static Window parseWindow(String window) {
+        try {
+            return Window.valueOf(window.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("window must be one of: hour, day, week");
+        }
+    }
+
+    private record Sale(Long bookId, int quantity, long bucket) {
+    }
+
+    private record Bucket(long index, Map<Long, LongAdder> units) {
+    }
+
+    private record BookInfo(String title, String author, String category) {
+    }
+
+    // rankings: window -> category ("" for all) -> best sellers, most units first
+    private record Snapshot(LocalDateTime asOf, Map<Window, Map<String, List<BestsellerDTO>>> rankings) {
+    }
+}
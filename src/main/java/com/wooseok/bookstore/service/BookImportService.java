@@ -0,0 +1,14 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BookImportService {
+
+    // Streams a catalog feed into the books table, upserting by ISBN in chunks of chunkSize rows,
+    // one transaction per chunk. Per chunk: one ISBN lookup and one batched upsert, plus a books_seq
+    // call per 50 new books.
+    BookImportResultDTO importBooks(InputStream feed, ImportFormat format, Integer chunkSize) throws IOException;
+}
@@ -0,0 +1,315 @@
+package com.wooseok.bookstore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.BookImportErrorDTO;
+import com.wooseok.bookstore.dto.BookImportResultDTO;
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Bulk catalog import. The feed is parsed as it arrives and valid rows are collected into chunks;
+// each chunk is one ISBN lookup and one batched upsert (see BookRepositoryImpl), committed on its
+// own. Memory holds one chunk and the first MAX_REPORTED_ERRORS errors, however long the feed.
+// Re-sending a feed is safe: rows already imported are updated in place, so a run that stopped
+// part way can simply be repeated.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1_000;
+    private static final int MIN_CHUNK_SIZE = 100;
+    private static final int MAX_CHUNK_SIZE = 5_000;
+    private static final int MAX_ROWS = 1_000_000;
+    private static final int MAX_REPORTED_ERRORS = 1_000;
+    private static final int PROGRESS_INTERVAL = 100_000;
+    private static final List<String> CSV_COLUMNS = List.of("title", "author", "isbn", "price", "stockQuantity",
+            "description", "category");
+    private static final List<String> CSV_REQUIRED = List.of("title", "author", "isbn", "price", "category");
+
+    private final BookRepository bookRepository;
+    private final InventoryService inventoryService;
+    private final Optional<BookSearchIndex> searchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public BookImportResultDTO importBooks(InputStream feed, ImportFormat format, Integer chunkSize) throws IOException {
+        int chunk = chunkSize != null ? chunkSize : DEFAULT_CHUNK_SIZE;
+        if (chunk < MIN_CHUNK_SIZE || chunk > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE);
+        }
+        Reader reader = new InputStreamReader(feed, StandardCharsets.UTF_8);
+        FeedReader<BookDTO> rows = format == ImportFormat.CSV
+                ? FeedReader.csv(reader, CSV_COLUMNS, CSV_REQUIRED, BookImportServiceImpl::fromCsv)
+                : FeedReader.ndjson(reader, objectMapper.readerFor(BookDTO.class));
+
+        Run run = new Run(format);
+        List<FeedReader.Row<BookDTO>> pending = new ArrayList<>(chunk);
+        try {
+            FeedReader.Row<BookDTO> row;
+            while ((row = rows.next()) != null) {
+                if (run.rows == MAX_ROWS) {
+                    throw new IllegalArgumentException("Feed has more than " + MAX_ROWS
+                            + " rows; nothing from line " + row.line() + " on was imported");
+                }
+                run.rows++;
+                String error = row.error() != null ? row.error() : validate(row.value());
+                if (error != null) {
+                    run.fail(row, error);
+                    continue;
+                }
+                pending.add(row);
+                if (pending.size() == chunk) {
+                    importChunk(pending, run);
+                    pending.clear();
+                }
+            }
+            if (!pending.isEmpty()) {
+                importChunk(pending, run);
+            }
+            run.completed = true;
+        } catch (RuntimeException ex) {
+            log.warn("Book import stopped after line {}", run.lastLine, ex);
+            run.error = ex.getMessage();
+        }
+
+        BookImportResultDTO result = run.summarize();
+        log.info("Book import ({}): {} rows, {} inserted, {} updated, {} duplicates, {} failed in {} ms ({} rows/s)",
+                result.getFormat(), result.getRows(), result.getInserted(), result.getUpdated(),
+                result.getDuplicates(), result.getFailed(), result.getDurationMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    private void importChunk(List<FeedReader.Row<BookDTO>> rows, Run run) {
+        long start = System.nanoTime();
+
+        // A batched upsert cannot touch the same row twice: the last row for an ISBN wins
+        Map<String, FeedReader.Row<BookDTO>> byIsbn = new LinkedHashMap<>();
+        for (FeedReader.Row<BookDTO> row : rows) {
+            if (byIsbn.put(row.value().getIsbn(), row) != null) {
+                run.duplicates++;
+            }
+        }
+
+        Map<String, Long> existing = new LinkedHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.findIdsByIsbnIn(byIsbn.keySet())
+                        .forEach(found -> existing.put(found.getIsbn(), found.getId()));
+                upsert(new ArrayList<>(byIsbn.values()), existing);
+            });
+            byIsbn.values().forEach(row -> run.imported(existing.containsKey(row.value().getIsbn())));
+        } catch (DataIntegrityViolationException chunkFailure) {
+            // One bad row (e.g. a price too large for the column) must not cost the rest of its
+            // chunk: retry them one by one. Any other failure ends the import.
+            log.warn("Import chunk ending at line {} failed, retrying its rows one by one",
+                    rows.get(rows.size() - 1).line(), chunkFailure);
+            for (FeedReader.Row<BookDTO> row : byIsbn.values()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> upsert(List.of(row), existing));
+                    run.imported(existing.containsKey(row.value().getIsbn()));
+                } catch (DataIntegrityViolationException ex) {
+                    run.fail(row, NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+
+        run.chunkMillis.add((System.nanoTime() - start) / 1_000_000);
+        run.lastLine = rows.get(rows.size() - 1).line();
+        run.progress();
+    }
+
+    private void upsert(List<FeedReader.Row<BookDTO>> rows, Map<String, Long> existing) {
+        List<Book> books = rows.stream()
+                .map(row -> toEntity(row.value(), existing.get(row.value().getIsbn())))
+                .collect(Collectors.toList());
+        bookRepository.upsertByIsbn(books);
+
+        // Same bookkeeping as BookServiceImpl.createBook/updateBook, once the chunk is committed
+        afterCommit(() -> {
+            for (Book book : books) {
+                searchIndex.ifPresent(index -> index.put(book));
+                if (!existing.containsKey(book.getIsbn())) {
+                    inventoryService.bookCreated(book);
+                }
+            }
+        });
+    }
+
+    // Messages of the BookDTO constraints, as POST /api/books reports them, or null when valid
+    private String validate(BookDTO book) {
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(book);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static BookDTO fromCsv(FeedReader.Fields fields) {
+        return BookDTO.builder()
+                .title(fields.text("title"))
+                .author(fields.text("author"))
+                .isbn(fields.text("isbn"))
+                .price(fields.decimal("price"))
+                .stockQuantity(fields.integer("stockQuantity"))
+                .description(fields.text("description"))
+                .category(fields.text("category"))
+                .build();
+    }
+
+    // Stock is only used for new books; a missing value starts them at 0
+    private static Book toEntity(BookDTO bookDTO, Long existingId) {
+        return Book.builder()
+                .id(existingId)
+                .title(bookDTO.getTitle())
+                .author(bookDTO.getAuthor())
+                .isbn(bookDTO.getIsbn())
+                .category(bookDTO.getCategory())
+                .price(bookDTO.getPrice())
+                .stockQuantity(bookDTO.getStockQuantity() != null ? bookDTO.getStockQuantity() : 0)
+                .description(bookDTO.getDescription())
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Counts for one call. Rows also go to the bookstore.import.rows counter (entity=books, tagged by
+    // format and outcome) after every chunk, so a long import can be followed on /actuator/metrics.
+    private final class Run {
+        private final ImportFormat format;
+        private final long startedAt = System.nanoTime();
+        private final List<Long> chunkMillis = new ArrayList<>();
+        private final List<BookImportErrorDTO> errors = new ArrayList<>();
+        private long rows;
+        private long inserted;
+        private long updated;
+        private long duplicates;
+        private long failed;
+        private long lastLine;
+        private boolean completed;
+        private String error;
+
+        // Already published to the counters
+        private long insertedReported;
+        private long updatedReported;
+        private long duplicatesReported;
+        private long failedReported;
+        private long progressLogged;
+
+        private Run(ImportFormat format) {
+            this.format = format;
+        }
+
+        private void imported(boolean existed) {
+            if (existed) {
+                updated++;
+            } else {
+                inserted++;
+            }
+        }
+
+        private void fail(FeedReader.Row<BookDTO> row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(BookImportErrorDTO.builder()
+                        .line(row.line())
+                        .isbn(row.value() != null ? row.value().getIsbn() : null)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private void progress() {
+            insertedReported = report("inserted", inserted, insertedReported);
+            updatedReported = report("updated", updated, updatedReported);
+            duplicatesReported = report("duplicate", duplicates, duplicatesReported);
+            failedReported = report("failed", failed, failedReported);
+
+            if (rows / PROGRESS_INTERVAL > progressLogged) {
+                progressLogged = rows / PROGRESS_INTERVAL;
+                double seconds = (System.nanoTime() - startedAt) / 1e9;
+                log.info("Book import ({}): {} rows so far, {} inserted, {} updated, {} failed ({} rows/s)",
+                        format, rows, inserted, updated, failed, Math.round(rows / seconds));
+            }
+        }
+
+        private long report(String outcome, long total, long reported) {
+            if (total > reported) {
+                meterRegistry.counter("bookstore.import.rows", "entity", "books",
+                        "format", format.name().toLowerCase(Locale.ROOT), "outcome", outcome).increment(total - reported);
+            }
+            return total;
+        }
+
+        private BookImportResultDTO summarize() {
+            long durationNanos = System.nanoTime() - startedAt;
+            double seconds = durationNanos / 1e9;
+            List<Long> latencies = new ArrayList<>(chunkMillis);
+            Collections.sort(latencies);
+
+            return BookImportResultDTO.builder()
+                    .format(format.name().toLowerCase(Locale.ROOT))
+                    .rows(rows)
+                    .inserted(inserted)
+                    .updated(updated)
+                    .duplicates(duplicates)
+                    .failed(failed)
+                    .completed(completed)
+                    .lastLine(lastLine)
+                    .error(error)
+                    .durationMillis(durationNanos / 1_000_000)
+                    .rowsPerSecond(seconds > 0 ? rows / seconds : 0)
+                    .chunks(chunkMillis.size())
+                    .chunkMillisP50(latencies.isEmpty() ? 0 : latencies.get((latencies.size() - 1) / 2))
+                    .chunkMillisMax(latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1))
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// In-memory trigram index over Book.title and Book.author, so substring searches do not
+// scan the books table. Every book gets a dense int document id; posting lists are sorted
+// int arrays of document ids. Updates add a new document and tombstone the old one, and
+// the index compacts itself once tombstones outnumber live documents.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bookstore.search.index.enabled", havingValue = "true", matchIfMissing = true)
+public class BookSearchIndex {
+
+    public enum Field { TITLE, AUTHOR }
+
+    private static final int GRAM = 3;
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] bookIds = new long[1024];
+    private String[] titles = new String[1024];
+    private String[] authors = new String[1024];
+    private int documentCount;
+    private int deletedCount;
+    private final BitSet deleted = new BitSet();
+    private final Map<Long, Integer> documentByBookId = new HashMap<>();
+    private final Map<String, IntList> titlePostings = new HashMap<>();
+    private final Map<String, IntList> authorPostings = new HashMap<>();
+
+    private volatile boolean ready;
+    private boolean building;
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+
+    // Built once the application is up, from an id/title/author projection of the books table.
+    // Searches go to SQL until the index is ready (see isReady); calling it again rebuilds from scratch.
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            building = true;
+            changedDuringBuild.clear();
+            reset(1024);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<BookRepository.SearchFields> rows = bookRepository.streamSearchFields()) {
+                    lock.writeLock().lock();
+                    try {
+                        // A book put or removed since the build started is already as it should be;
+                        // its row may predate that change and would add it a second time
+                        rows.filter(row -> !changedDuringBuild.contains(row.getId()))
+                                .forEach(row -> add(row.getId(), row.getTitle(), row.getAuthor()));
+                        ready = true;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                building = false;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Book search index built with {} books and {} title grams", documentCount, titlePostings.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(book.getId());
+            add(book.getId(), book.getTitle(), book.getAuthor());
+            if (building) {
+                changedDuringBuild.add(book.getId());
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+            if (building) {
+                changedDuringBuild.add(bookId);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns book ids containing the query (case-insensitive), best matches first:
+    // exact match, then prefix, then word start, then anywhere; shorter text wins ties.
+    public List<Long> search(Field field, String query, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            String[] texts = field == Field.TITLE ? titles : authors;
+            PriorityQueue<Hit> best = new PriorityQueue<>(Hit.WORST_FIRST);
+
+            if (needle.length() < GRAM) {
+                // Too short for trigrams: scan the in-memory strings
+                for (int doc = 0; doc < documentCount; doc++) {
+                    collect(doc, texts, needle, best, limit);
+                }
+            } else {
+                int[] candidates = candidates(field == Field.TITLE ? titlePostings : authorPostings, needle);
+                for (int doc : candidates) {
+                    collect(doc, texts, needle, best, limit);
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(Hit.WORST_FIRST.reversed());
+            List<Long> result = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                result.add(bookIds[hit.doc()]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(int doc, String[] texts, String needle, PriorityQueue<Hit> best, int limit) {
+        if (deleted.get(doc)) {
+            return;
+        }
+        String text = texts[doc];
+        int position = text.indexOf(needle);
+        if (position < 0) {
+            return;
+        }
+
+        int score;
+        if (text.length() == needle.length()) {
+            score = 3;
+        } else if (position == 0) {
+            score = 2;
+        } else if (!Character.isLetterOrDigit(text.charAt(position - 1))) {
+            score = 1;
+        } else {
+            score = 0;
+        }
+
+        best.offer(new Hit(doc, score, text.length()));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    // Intersects the posting lists of every trigram in the query, smallest list first
+    private int[] candidates(Map<String, IntList> postings, String needle) {
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            IntList list = postings.get(needle.substring(i, i + GRAM));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntList::size));
+
+        int[] result = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        int resultSize = result.length;
+        for (int l = 1; l < lists.size() && resultSize > 0; l++) {
+            resultSize = intersect(result, resultSize, lists.get(l));
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    // In-place merge intersection of two sorted arrays, returns the new size of target
+    private static int intersect(int[] target, int targetSize, IntList other) {
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < targetSize && j < other.size) {
+            if (target[i] < other.values[j]) {
+                i++;
+            } else if (target[i] > other.values[j]) {
+                j++;
+            } else {
+                target[size++] = target[i];
+                i++;
+                j++;
+            }
+        }
+        return size;
+    }
+
+    private void add(Long bookId, String title, String author) {
+        int doc = documentCount++;
+        if (doc == bookIds.length) {
+            int capacity = bookIds.length * 2;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+        }
+
+        bookIds[doc] = bookId;
+        titles[doc] = normalize(title);
+        authors[doc] = normalize(author);
+        documentByBookId.put(bookId, doc);
+        indexGrams(titlePostings, titles[doc], doc);
+        indexGrams(authorPostings, authors[doc], doc);
+    }
+
+    private void removeDocument(Long bookId) {
+        Integer doc = documentByBookId.remove(bookId);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedCount++;
+        }
+    }
+
+    private static void indexGrams(Map<String, IntList> postings, String text, int doc) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            IntList list = postings.computeIfAbsent(text.substring(i, i + GRAM), gram -> new IntList());
+            // The same gram can occur twice in one text; documents are added in increasing order
+            if (list.size == 0 || list.values[list.size - 1] != doc) {
+                list.add(doc);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount > MIN_COMPACTION_SIZE && deletedCount > documentCount - deletedCount) {
+            compact();
+        }
+    }
+
+    // Rebuilds every structure from the live documents, dropping tombstones
+    private void compact() {
+        long[] oldBookIds = bookIds;
+        String[] oldTitles = titles;
+        String[] oldAuthors = authors;
+        int oldCount = documentCount;
+        BitSet oldDeleted = (BitSet) deleted.clone();
+
+        reset(Math.max(1024, oldCount - deletedCount));
+
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (!oldDeleted.get(doc)) {
+                int newDoc = documentCount++;
+                bookIds[newDoc] = oldBookIds[doc];
+                titles[newDoc] = oldTitles[doc];
+                authors[newDoc] = oldAuthors[doc];
+                documentByBookId.put(oldBookIds[doc], newDoc);
+                indexGrams(titlePostings, titles[newDoc], newDoc);
+                indexGrams(authorPostings, authors[newDoc], newDoc);
+            }
+        }
+        log.info("Book search index compacted to {} books", documentCount);
+    }
+
+    private void reset(int capacity) {
+        bookIds = new long[capacity];
+        titles = new String[capacity];
+        authors = new String[capacity];
+        documentCount = 0;
+        deletedCount = 0;
+        deleted.clear();
+        documentByBookId.clear();
+        titlePostings.clear();
+        authorPostings.clear();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Hit(int doc, int score, int length) {
+        // Lowest score first, then longest text, then newest document
+        static final Comparator<Hit> WORST_FIRST = Comparator.comparingInt(Hit::score)
+                .thenComparing(Comparator.comparingInt(Hit::length).reversed())
+                .thenComparing(Comparator.comparingInt(Hit::doc).reversed());
+    }
+
+    // Growable primitive int list, so posting lists never box their document ids
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
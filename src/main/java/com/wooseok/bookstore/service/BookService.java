@@ -1,7 +1,10 @@
 package com.wooseok.bookstore.service;
 
 import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CursorPageDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -13,16 +16,28 @@ public interface BookService {
 
     List<BookDTO> getAllBooks();
 
+    CursorPageDTO<BookDTO> getBooks(Long after, int limit);
+
     BookDTO updateBook(Long id, BookDTO bookDTO);
 
     void deleteBook(Long id);
 
-    List<BookDTO> findBooksByAuthor(String author);
+    // Relevance-ordered, at most limit results
+    List<BookDTO> findBooksByAuthor(String author, int limit);
+
+    List<BookDTO> findBooksByTitle(String title, int limit);
+
+
+    CursorPageDTO<BookDTO> searchByCategory(String category, Long after, int limit);
+    CursorPageDTO<BookDTO> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Long after, int limit);
+    CursorPageDTO<BookDTO> findLowStockBooks(int threshold, Long after, int limit);
+
+    void exportBooks(OutputStream outputStream) throws IOException;
 
-    List<BookDTO> findBooksByTitle(String title);
+    // ETags for conditional GETs, computed from version columns only
+    String getBookETag(Long id);
 
+    String getBooksETag(Long after, int limit);
 
-    List<BookDTO> searchByCategory(String category);
-    List<BookDTO> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
-    List<BookDTO> findLowStockBooks(int threshold);
-}
\ No newline at end of file
+    String getCategoryETag(String category, Long after, int limit);
+}
@@ -1,28 +1,54 @@
 package com.wooseok.bookstore.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CursorPageDTO;
 import com.wooseok.bookstore.exception.ResourceNotFoundException;
 import com.wooseok.bookstore.model.Book;
 import com.wooseok.bookstore.repository.BookRepository;
+import com.wooseok.bookstore.repository.CollectionVersion;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class BookServiceImpl implements BookService {
 
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final BookRepository bookRepository;
+    private final InventoryService inventoryService;
+    private final Optional<BookSearchIndex> searchIndex;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final StockAlertService stockAlertService;
 
     @Override
     public BookDTO createBook(BookDTO bookDTO) {
         Book book = mapToEntity(bookDTO);
         Book savedBook = bookRepository.save(book);
+        inventoryService.bookCreated(savedBook);
+        searchIndex.ifPresent(index -> afterCommit(() -> index.put(savedBook)));
         return mapToDTO(savedBook);
     }
 
@@ -40,6 +66,12 @@ public class BookServiceImpl implements BookService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<BookDTO> getBooks(Long after, int limit) {
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(Pagination.after(after), Pagination.limit(limit));
+        return Pagination.page(books, limit, Book::getId, this::mapToDTO);
+    }
+
     @Override
     public BookDTO updateBook(Long id, BookDTO bookDTO) {
         Book book = bookRepository.findById(id)
@@ -50,10 +82,17 @@ public class BookServiceImpl implements BookService {
         book.setAuthor(bookDTO.getAuthor());
         book.setIsbn(bookDTO.getIsbn());
         book.setPrice(bookDTO.getPrice());
-        book.setStockQuantity(bookDTO.getStockQuantity());
         book.setDescription(bookDTO.getDescription());
 
+        // Stock goes through the inventory service so in-memory reservations stay consistent
+        if (bookDTO.getStockQuantity() != null) {
+            int previousStock = inventoryService.availableStock(book);
+            inventoryService.applyStockUpdate(book, bookDTO.getStockQuantity());
+            stockAlertService.stockChanged(book, previousStock, bookDTO.getStockQuantity());
+        }
+
         Book updatedBook = bookRepository.save(book);
+        searchIndex.ifPresent(index -> afterCommit(() -> index.put(updatedBook)));
         return mapToDTO(updatedBook);
     }
 
@@ -62,54 +101,130 @@ public class BookServiceImpl implements BookService {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "id", id));
         bookRepository.delete(book);
+        inventoryService.bookDeleted(id);
+        searchIndex.ifPresent(index -> afterCommit(() -> index.remove(id)));
     }
 
     @Override
-    public List<BookDTO> findBooksByAuthor(String author) {
-        return bookRepository.findByAuthorContainingIgnoreCase(author).stream()
+    public List<BookDTO> findBooksByAuthor(String author, int limit) {
+        Pagination.checkLimit(limit);
+        Optional<BookSearchIndex> index = readyIndex();
+        if (index.isPresent()) {
+            return findIndexedBooks(index.get().search(BookSearchIndex.Field.AUTHOR, author, limit));
+        }
+        return bookRepository.findByAuthorContainingIgnoreCase(author, Limit.of(limit)).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<BookDTO> findBooksByTitle(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title).stream()
+    public List<BookDTO> findBooksByTitle(String title, int limit) {
+        Pagination.checkLimit(limit);
+        Optional<BookSearchIndex> index = readyIndex();
+        if (index.isPresent()) {
+            return findIndexedBooks(index.get().search(BookSearchIndex.Field.TITLE, title, limit));
+        }
+        return bookRepository.findByTitleContainingIgnoreCase(title, Limit.of(limit)).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<BookDTO> searchByCategory(String category) {
-        List<Book> books = bookRepository.findByCategory(category);
-        return books.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<BookDTO> searchByCategory(String category, Long after, int limit) {
+        List<Book> books = bookRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(
+                category, Pagination.after(after), Pagination.limit(limit));
+        return Pagination.page(books, limit, Book::getId, this::mapToDTO);
     }
 
     @Override
-    public List<BookDTO> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+    public CursorPageDTO<BookDTO> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Long after, int limit) {
         if (minPrice.compareTo(maxPrice) > 0) {
             throw new IllegalArgumentException("Minimum price cannot be greater than maximum price");
         }
-        List<Book> books = bookRepository.findByPriceBetween(minPrice, maxPrice);
-        return books.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        List<Book> books = bookRepository.findByPriceBetweenAndIdGreaterThanOrderByIdAsc(
+                minPrice, maxPrice, Pagination.after(after), Pagination.limit(limit));
+        return Pagination.page(books, limit, Book::getId, this::mapToDTO);
     }
 
     @Override
-    public List<BookDTO> findLowStockBooks(int threshold) {
+    public CursorPageDTO<BookDTO> findLowStockBooks(int threshold, Long after, int limit) {
         if (threshold < 0) {
             throw new IllegalArgumentException("Stock threshold cannot be negative");
         }
-        List<Book> books = bookRepository.findByStockQuantityLessThan(threshold);
-        return books.stream()
+        List<Book> books = bookRepository.findByStockQuantityLessThanAndIdGreaterThanOrderByIdAsc(
+                threshold, Pagination.after(after), Pagination.limit(limit));
+        return Pagination.page(books, limit, Book::getId, this::mapToDTO);
+    }
+
+    // Streams rows as newline-delimited JSON. The persistence context is cleared every
+    // EXPORT_CHUNK_SIZE rows, so memory stays flat however large the table is.
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(BookDTO.class);
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            int written = 0;
+            for (Iterator<Book> iterator = books.iterator(); iterator.hasNext(); ) {
+                outputStream.write(writer.writeValueAsBytes(mapToDTO(iterator.next())));
+                outputStream.write('\n');
+                if (++written % EXPORT_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getBookETag(Long id) {
+        LocalDateTime updatedAt = bookRepository.findUpdatedAtById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", "id", id));
+        return ETags.of("book", id, updatedAt);
+    }
+
+    @Override
+    public String getBooksETag(Long after, int limit) {
+        CollectionVersion version = bookRepository.findCollectionVersion();
+        return ETags.of("books", version.getLastUpdated(), version.getCount(), after, limit);
+    }
+
+    @Override
+    public String getCategoryETag(String category, Long after, int limit) {
+        CollectionVersion version = bookRepository.findCollectionVersionByCategory(category);
+        return ETags.of("category", category, version.getLastUpdated(), version.getCount(), after, limit);
+    }
+
+    // While the index is being built, searches take the LIKE query
+    private Optional<BookSearchIndex> readyIndex() {
+        return searchIndex.filter(BookSearchIndex::isReady);
+    }
+
+    // Loads the ranked ids from the search index and keeps their order
+    private List<BookDTO> findIndexedBooks(List<Long> rankedIds) {
+        Map<Long, Book> books = bookRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
-    // Helper methods to convert between Entity and DTO
-    private BookDTO mapToDTO(Book book) {
+    // Keep the search index in step with the catalog once the change is committed
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Helper methods to convert between Entity and DTO (package-private for the benchmarks in src/perf)
+    BookDTO mapToDTO(Book book) {
         return BookDTO.builder()
                 .id(book.getId())
                 .title(book.getTitle())
@@ -117,12 +232,12 @@ public class BookServiceImpl implements BookService {
                 .isbn(book.getIsbn())
                 .category(book.getCategory())
                 .price(book.getPrice())
-                .stockQuantity(book.getStockQuantity())
+                .stockQuantity(inventoryService.availableStock(book))
                 .description(book.getDescription())
                 .build();
     }
 
-    private Book mapToEntity(BookDTO bookDTO) {
+    Book mapToEntity(BookDTO bookDTO) {
         return Book.builder()
                 .title(bookDTO.getTitle())
                 .author(bookDTO.getAuthor())
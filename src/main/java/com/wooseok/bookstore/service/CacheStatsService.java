@@ -0,0 +1,11 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.CacheRegionStatsDTO;
+
+import java.util.List;
+
+public interface CacheStatsService {
+
+    // Hit/miss counters of every second-level cache region and the query cache
+    List<CacheRegionStatsDTO> getRegionStats();
+}
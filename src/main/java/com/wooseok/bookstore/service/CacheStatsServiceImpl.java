@@ -0,0 +1,46 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.CacheRegionStatsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatsServiceImpl implements CacheStatsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public List<CacheRegionStatsDTO> getRegionStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Entity regions, the query results region and the update timestamps region
+        List<CacheRegionStatsDTO> regions = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.add(mapToDTO(region, regionStatistics));
+            }
+        }
+        return regions;
+    }
+
+    private CacheRegionStatsDTO mapToDTO(String region, CacheRegionStatistics statistics) {
+        long lookups = statistics.getHitCount() + statistics.getMissCount();
+        return CacheRegionStatsDTO.builder()
+                .region(region)
+                .hitCount(statistics.getHitCount())
+                .missCount(statistics.getMissCount())
+                .putCount(statistics.getPutCount())
+                .elementCountInMemory(statistics.getElementCountInMemory())
+                .hitRatio(lookups == 0 ? 0.0 : (double) statistics.getHitCount() / lookups)
+                .build();
+    }
+}
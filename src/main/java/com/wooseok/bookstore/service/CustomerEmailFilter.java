@@ -0,0 +1,177 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.repository.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+// Bloom filter over every customer email, so the customer import only looks up the emails that
+// may already be taken. "No" is certain and needs no query; "maybe" is confirmed with a batched IN
+// lookup. Sized for bookstore.customers.email-filter.false-positive-rate at twice the current table
+// (at least min-capacity emails) and rebuilt in the background once it fills up. Deleted customers
+// stay in until the next rebuild, which only costs false positives.
+// New emails are added as customers are created, before commit: a rollback leaves a false
+// positive, never a miss. A customer created by another instance is missed until the next rebuild;
+// the unique constraint on email still rejects the duplicate, and the import reports it as taken.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bookstore.customers.email-filter.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerEmailFilter {
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bookstore.customers.email-filter.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${bookstore.customers.email-filter.min-capacity:1000000}")
+    private long minCapacity;
+
+    // Null until the first build has finished; until then every email is a "maybe"
+    private volatile Bits bits;
+    // The filter being rebuilt, which receives new emails as well
+    private volatile Bits building;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Built once the application is up, in the background: a large table must not hold up startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuildInBackground();
+    }
+
+    public boolean mightContain(String email) {
+        Bits current = bits;
+        return current == null || current.mightContain(email);
+    }
+
+    public void add(String email) {
+        Bits next = building;
+        if (next != null) {
+            next.add(email);
+        }
+        Bits current = bits;
+        if (current != null) {
+            current.add(email);
+            if (current.full()) {
+                rebuildInBackground();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return bits != null;
+    }
+
+    private void rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("customer-email-filter").start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                log.warn("Customer email filter rebuild failed, emails are checked against the database meanwhile", ex);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        long customers = customerRepository.count();
+        Bits next = new Bits(Math.max(minCapacity, customers * 2), falsePositiveRate);
+        building = next;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emails = customerRepository.streamEmails()) {
+                    emails.forEach(next::add);
+                }
+            });
+            bits = next;
+        } finally {
+            building = null;
+        }
+        log.info("Customer email filter built from {} emails: {} KB, {} hash functions, in {} ms",
+                next.count.get(), next.words.length() / 128, next.hashes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Lock-free bit array: k probe positions from two 64-bit hashes (h1 + i * h2)
+    private static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private final long capacity;
+        private final AtomicLong count = new AtomicLong();
+
+        private Bits(long capacity, double falsePositiveRate) {
+            // Optimal size m = -n ln p / (ln 2)^2 and hash count k = m / n ln 2
+            long bitCount = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (bitCount + 63) / 64));
+            this.size = words.length() * 64L;
+            this.hashes = (int) Math.max(1, Math.round((double) size / capacity * Math.log(2)));
+            this.capacity = capacity;
+        }
+
+        private void add(String email) {
+            long h1 = hash(email);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word = words.get(index);
+                while ((word & mask) == 0 && !words.weakCompareAndSetVolatile(index, word, word | mask)) {
+                    word = words.get(index);
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        private boolean mightContain(String email) {
+            long h1 = hash(email);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean full() {
+            return count.get() > capacity;
+        }
+
+        // FNV-1a over the UTF-16 chars, then a 64-bit finalizer so every bit depends on every char
+        private static long hash(String value) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xFF51AFD7ED558CCDL;
+            value ^= value >>> 33;
+            value *= 0xC4CEB9FE1A85EC53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
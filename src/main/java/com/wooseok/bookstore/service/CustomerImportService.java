@@ -0,0 +1,15 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.CustomerImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface CustomerImportService {
+
+    // Streams a customer list into the customers table in chunks of chunkSize rows, one transaction
+    // per chunk. Emails already taken, or repeated within a chunk, are reported instead of inserted.
+    // Per chunk: at most one email lookup and one batched INSERT, plus a customers_seq call per 50
+    // new customers.
+    CustomerImportResultDTO importCustomers(InputStream feed, ImportFormat format, Integer chunkSize) throws IOException;
+}
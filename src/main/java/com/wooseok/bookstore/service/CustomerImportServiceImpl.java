@@ -0,0 +1,320 @@
+package com.wooseok.bookstore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.CustomerImportResultDTO;
+import com.wooseok.bookstore.dto.CustomerImportRowDTO;
+import com.wooseok.bookstore.model.Customer;
+import com.wooseok.bookstore.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Bulk customer import, for merging customer lists. createCustomer costs an email lookup and an
+// INSERT per customer; here each chunk costs at most one batched email lookup and one JDBC insert
+// batch, committed on its own. Emails the CustomerEmailFilter has never seen are certainly free and
+// are not looked up at all; only its "maybe" answers go into the lookup. A repeated email in a
+// chunk keeps its first row. Rows that are not created are reported with their line and the reason.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CustomerImportServiceImpl implements CustomerImportService {
+
+    enum Status { DUPLICATE, EMAIL_EXISTS, INVALID, FAILED }
+
+    private static final int DEFAULT_CHUNK_SIZE = 1_000;
+    private static final int MIN_CHUNK_SIZE = 100;
+    private static final int MAX_CHUNK_SIZE = 5_000;
+    private static final int MAX_ROWS = 1_000_000;
+    // Taken emails are an expected outcome of merging lists, so more rows are listed than book import errors
+    private static final int MAX_REPORTED_ROWS = 10_000;
+    private static final int PROGRESS_INTERVAL = 100_000;
+    private static final List<String> CSV_COLUMNS = List.of("firstName", "lastName", "email", "phoneNumber", "address");
+    private static final List<String> CSV_REQUIRED = List.of("firstName", "lastName", "email", "phoneNumber");
+
+    private final CustomerRepository customerRepository;
+    private final Optional<CustomerEmailFilter> emailFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public CustomerImportResultDTO importCustomers(InputStream feed, ImportFormat format, Integer chunkSize) throws IOException {
+        int chunk = chunkSize != null ? chunkSize : DEFAULT_CHUNK_SIZE;
+        if (chunk < MIN_CHUNK_SIZE || chunk > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE);
+        }
+        Reader reader = new InputStreamReader(feed, StandardCharsets.UTF_8);
+        FeedReader<CustomerDTO> rows = format == ImportFormat.CSV
+                ? FeedReader.csv(reader, CSV_COLUMNS, CSV_REQUIRED, CustomerImportServiceImpl::fromCsv)
+                : FeedReader.ndjson(reader, objectMapper.readerFor(CustomerDTO.class));
+
+        Run run = new Run(format, emailFilter.map(CustomerEmailFilter::isReady).orElse(false));
+        List<FeedReader.Row<CustomerDTO>> pending = new ArrayList<>(chunk);
+        try {
+            FeedReader.Row<CustomerDTO> row;
+            while ((row = rows.next()) != null) {
+                if (run.rows == MAX_ROWS) {
+                    throw new IllegalArgumentException("Feed has more than " + MAX_ROWS
+                            + " rows; nothing from line " + row.line() + " on was imported");
+                }
+                run.rows++;
+                String error = row.error() != null ? row.error() : validate(row.value());
+                if (error != null) {
+                    run.reject(row, Status.INVALID, error);
+                    continue;
+                }
+                pending.add(row);
+                if (pending.size() == chunk) {
+                    importChunk(pending, run);
+                    pending.clear();
+                }
+            }
+            if (!pending.isEmpty()) {
+                importChunk(pending, run);
+            }
+            run.completed = true;
+        } catch (RuntimeException ex) {
+            log.warn("Customer import stopped after line {}", run.lastLine, ex);
+            run.error = ex.getMessage();
+        }
+
+        CustomerImportResultDTO result = run.summarize();
+        log.info("Customer import ({}): {} rows, {} created, {} duplicates, {} taken, {} invalid, {} failed, "
+                        + "{} emails looked up ({} false positives) in {} ms ({} rows/s)",
+                result.getFormat(), result.getRows(), result.getCreated(), result.getDuplicates(),
+                result.getEmailExists(), result.getInvalid(), result.getFailed(), result.getEmailsLookedUp(),
+                result.getFilterFalsePositives(), result.getDurationMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    private void importChunk(List<FeedReader.Row<CustomerDTO>> rows, Run run) {
+        long start = System.nanoTime();
+
+        Map<String, FeedReader.Row<CustomerDTO>> byEmail = new LinkedHashMap<>();
+        for (FeedReader.Row<CustomerDTO> row : rows) {
+            FeedReader.Row<CustomerDTO> first = byEmail.putIfAbsent(emailOf(row), row);
+            if (first != null) {
+                run.reject(row, Status.DUPLICATE, "Email already used on line " + first.line());
+            }
+        }
+
+        // Only the filter's "maybe" answers are looked up; without a filter every email is
+        List<String> candidates = byEmail.keySet().stream()
+                .filter(email -> emailFilter.map(filter -> filter.mightContain(email)).orElse(true))
+                .collect(Collectors.toList());
+        Set<String> taken = new HashSet<>();
+        List<NewCustomer> newCustomers = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!candidates.isEmpty()) {
+                    taken.addAll(customerRepository.findEmailsIn(candidates));
+                }
+                byEmail.forEach((email, row) -> {
+                    if (!taken.contains(email)) {
+                        newCustomers.add(new NewCustomer(row, toEntity(row.value())));
+                    }
+                });
+                insert(newCustomers.stream().map(NewCustomer::customer).collect(Collectors.toList()));
+            });
+            run.created += newCustomers.size();
+        } catch (DataIntegrityViolationException chunkFailure) {
+            // Typically an email taken since the lookup (or one the filter missed): retry the new
+            // customers one by one, so the rest of the chunk still goes in. Any other failure ends the import.
+            log.warn("Customer import chunk ending at line {} failed, retrying its rows one by one",
+                    rows.get(rows.size() - 1).line(), chunkFailure);
+            for (NewCustomer newCustomer : newCustomers) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(newCustomer.customer())));
+                    run.created++;
+                } catch (DuplicateKeyException ex) {
+                    run.reject(newCustomer.row(), Status.EMAIL_EXISTS, "Email already exists");
+                } catch (DataIntegrityViolationException ex) {
+                    run.reject(newCustomer.row(), Status.FAILED, NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+
+        byEmail.forEach((email, row) -> {
+            if (taken.contains(email)) {
+                run.reject(row, Status.EMAIL_EXISTS, "Email already exists");
+            }
+        });
+        run.emailsLookedUp += candidates.size();
+        run.falsePositives += candidates.size() - taken.size();
+        run.chunkMillis.add((System.nanoTime() - start) / 1_000_000);
+        run.lastLine = rows.get(rows.size() - 1).line();
+        run.progress();
+    }
+
+    // Emails go into the filter right away: should the chunk roll back they are false positives, never misses
+    private void insert(List<Customer> customers) {
+        customerRepository.insertAll(customers);
+        emailFilter.ifPresent(filter -> customers.forEach(customer -> filter.add(customer.getEmail())));
+    }
+
+    // The entity's constraints are the ones the table needs (e.g. a phone number is required), and a
+    // JDBC insert does not check them; the DTO adds its own (address length). Null when valid.
+    private String validate(CustomerDTO customerDTO) {
+        Set<ConstraintViolation<CustomerDTO>> dtoViolations = validator.validate(customerDTO);
+        Set<ConstraintViolation<Customer>> entityViolations = validator.validate(toEntity(customerDTO));
+        if (dtoViolations.isEmpty() && entityViolations.isEmpty()) {
+            return null;
+        }
+        return Stream.concat(dtoViolations.stream(), entityViolations.stream())
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String emailOf(FeedReader.Row<CustomerDTO> row) {
+        return row.value().getEmail().trim();
+    }
+
+    private static CustomerDTO fromCsv(FeedReader.Fields fields) {
+        return CustomerDTO.builder()
+                .firstName(fields.text("firstName"))
+                .lastName(fields.text("lastName"))
+                .email(fields.text("email"))
+                .phoneNumber(fields.text("phoneNumber"))
+                .address(fields.text("address"))
+                .build();
+    }
+
+    private static Customer toEntity(CustomerDTO customerDTO) {
+        return Customer.builder()
+                .firstName(customerDTO.getFirstName())
+                .lastName(customerDTO.getLastName())
+                .email(customerDTO.getEmail() != null ? customerDTO.getEmail().trim() : null)
+                .phoneNumber(customerDTO.getPhoneNumber())
+                .address(customerDTO.getAddress())
+                .build();
+    }
+
+    private record NewCustomer(FeedReader.Row<CustomerDTO> row, Customer customer) {
+    }
+
+    // Counts for one call. Rows also go to the bookstore.import.rows counter (entity=customers,
+    // tagged by format and outcome) after every chunk, so a long import can be followed on /actuator/metrics.
+    private final class Run {
+        private final ImportFormat format;
+        private final boolean filterUsed;
+        private final long startedAt = System.nanoTime();
+        private final List<Long> chunkMillis = new ArrayList<>();
+        private final List<CustomerImportRowDTO> results = new ArrayList<>();
+        private final Map<Status, Long> rejected = new LinkedHashMap<>();
+        private long rows;
+        private long created;
+        private long emailsLookedUp;
+        private long falsePositives;
+        private long lastLine;
+        private boolean completed;
+        private String error;
+
+        // Already published to the counters
+        private final Map<String, Long> reported = new LinkedHashMap<>();
+        private long progressLogged;
+
+        private Run(ImportFormat format, boolean filterUsed) {
+            this.format = format;
+            this.filterUsed = filterUsed;
+        }
+
+        private void reject(FeedReader.Row<CustomerDTO> row, Status status, String message) {
+            rejected.merge(status, 1L, Long::sum);
+            if (results.size() < MAX_REPORTED_ROWS) {
+                results.add(CustomerImportRowDTO.builder()
+                        .line(row.line())
+                        .email(row.value() != null ? row.value().getEmail() : null)
+                        .status(status.name())
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private long count(Status status) {
+            return rejected.getOrDefault(status, 0L);
+        }
+
+        private void progress() {
+            report("created", created);
+            for (Status status : Status.values()) {
+                report(status.name().toLowerCase(Locale.ROOT), count(status));
+            }
+
+            if (rows / PROGRESS_INTERVAL > progressLogged) {
+                progressLogged = rows / PROGRESS_INTERVAL;
+                double seconds = (System.nanoTime() - startedAt) / 1e9;
+                log.info("Customer import ({}): {} rows so far, {} created, {} taken, {} invalid ({} rows/s)",
+                        format, rows, created, count(Status.EMAIL_EXISTS), count(Status.INVALID), Math.round(rows / seconds));
+            }
+        }
+
+        private void report(String outcome, long total) {
+            long previous = reported.getOrDefault(outcome, 0L);
+            if (total > previous) {
+                meterRegistry.counter("bookstore.import.rows", "entity", "customers",
+                        "format", format.name().toLowerCase(Locale.ROOT), "outcome", outcome).increment(total - previous);
+                reported.put(outcome, total);
+            }
+        }
+
+        private CustomerImportResultDTO summarize() {
+            long durationNanos = System.nanoTime() - startedAt;
+            double seconds = durationNanos / 1e9;
+            List<Long> latencies = new ArrayList<>(chunkMillis);
+            Collections.sort(latencies);
+
+            return CustomerImportResultDTO.builder()
+                    .format(format.name().toLowerCase(Locale.ROOT))
+                    .rows(rows)
+                    .created(created)
+                    .duplicates(count(Status.DUPLICATE))
+                    .emailExists(count(Status.EMAIL_EXISTS))
+                    .invalid(count(Status.INVALID))
+                    .failed(count(Status.FAILED))
+                    .completed(completed)
+                    .lastLine(lastLine)
+                    .error(error)
+                    .durationMillis(durationNanos / 1_000_000)
+                    .rowsPerSecond(seconds > 0 ? rows / seconds : 0)
+                    .chunks(chunkMillis.size())
+                    .chunkMillisP50(latencies.isEmpty() ? 0 : latencies.get((latencies.size() - 1) / 2))
+                    .chunkMillisMax(latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1))
+                    .filterUsed(filterUsed)
+                    .emailsLookedUp(emailsLookedUp)
+                    .filterFalsePositives(filterUsed ? falsePositives : 0)
+                    .results(results)
+                    .build();
+        }
+    }
+}
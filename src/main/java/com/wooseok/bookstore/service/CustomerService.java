@@ -1,6 +1,10 @@
 package com.wooseok.bookstore.service;
 
+import com.wooseok.bookstore.dto.CursorPageDTO;
 import com.wooseok.bookstore.dto.CustomerDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface CustomerService {
@@ -11,9 +15,19 @@ public interface CustomerService {
 
     List<CustomerDTO> getAllCustomers();
 
+    CursorPageDTO<CustomerDTO> getCustomers(Long after, int limit);
+
     CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO);
 
+    // Deletes the customer's orders and their lines with bulk DELETEs
     void deleteCustomer(Long id);
 
     CustomerDTO findCustomerByEmail(String email);
+
+    void exportCustomers(OutputStream outputStream) throws IOException;
+
+    // ETags for conditional GETs, computed from version columns only
+    String getCustomerETag(Long id);
+
+    String getCustomersETag(Long after, int limit);
 }
\ No newline at end of file
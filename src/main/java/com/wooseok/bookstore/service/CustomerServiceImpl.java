@@ -1,22 +1,42 @@
 package com.wooseok.bookstore.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wooseok.bookstore.dto.CursorPageDTO;
 import com.wooseok.bookstore.dto.CustomerDTO;
 import com.wooseok.bookstore.exception.ResourceNotFoundException;
 import com.wooseok.bookstore.model.Customer;
+import com.wooseok.bookstore.repository.CollectionVersion;
 import com.wooseok.bookstore.repository.CustomerRepository;
+import com.wooseok.bookstore.repository.OrderItemRepository;
+import com.wooseok.bookstore.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final CustomerRepository customerRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Optional<CustomerEmailFilter> emailFilter;
 
     @Override
     public CustomerDTO createCustomer(CustomerDTO customerDTO) {
@@ -27,6 +47,8 @@ public class CustomerServiceImpl implements CustomerService {
 
         Customer customer = mapToEntity(customerDTO);
         Customer savedCustomer = customerRepository.save(customer);
+        // Added before commit: a rollback only leaves a false positive in the filter
+        emailFilter.ifPresent(filter -> filter.add(savedCustomer.getEmail()));
         return mapToDTO(savedCustomer);
     }
 
@@ -44,6 +66,13 @@ public class CustomerServiceImpl implements CustomerService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<CustomerDTO> getCustomers(Long after, int limit) {
+        List<Customer> customers = customerRepository.findByIdGreaterThanOrderByIdAsc(
+                Pagination.after(after), Pagination.limit(limit));
+        return Pagination.page(customers, limit, Customer::getId, this::mapToDTO);
+    }
+
     @Override
     public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO) {
         Customer customer = customerRepository.findById(id)
@@ -63,6 +92,7 @@ public class CustomerServiceImpl implements CustomerService {
         customer.setAddress(customerDTO.getAddress());
 
         Customer updatedCustomer = customerRepository.save(customer);
+        emailFilter.ifPresent(filter -> filter.add(updatedCustomer.getEmail()));
         return mapToDTO(updatedCustomer);
     }
 
@@ -70,6 +100,11 @@ public class CustomerServiceImpl implements CustomerService {
     public void deleteCustomer(Long id) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", id));
+        // Bulk DELETEs for the order lines and orders: cascading through the entities issues two
+        // DELETEs per order, as Hibernate does not regroup interleaved deletes into batches.
+        // The cascade below then finds no orders left.
+        orderItemRepository.deleteByCustomerId(id);
+        orderRepository.deleteByCustomerId(id);
         customerRepository.delete(customer);
     }
 
@@ -80,8 +115,39 @@ public class CustomerServiceImpl implements CustomerService {
         return mapToDTO(customer);
     }
 
-    // Helper methods to convert between Entity and DTO
-    private CustomerDTO mapToDTO(Customer customer) {
+    @Override
+    public String getCustomerETag(Long id) {
+        LocalDateTime updatedAt = customerRepository.findUpdatedAtById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", id));
+        return ETags.of("customer", id, updatedAt);
+    }
+
+    @Override
+    public String getCustomersETag(Long after, int limit) {
+        CollectionVersion version = customerRepository.findCollectionVersion();
+        return ETags.of("customers", version.getLastUpdated(), version.getCount(), after, limit);
+    }
+
+    // Streams rows as newline-delimited JSON. The persistence context is cleared every
+    // EXPORT_CHUNK_SIZE rows, so memory stays flat however large the table is.
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCustomers(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(CustomerDTO.class);
+        try (Stream<Customer> customers = customerRepository.streamAll()) {
+            int written = 0;
+            for (Iterator<Customer> iterator = customers.iterator(); iterator.hasNext(); ) {
+                outputStream.write(writer.writeValueAsBytes(mapToDTO(iterator.next())));
+                outputStream.write('\n');
+                if (++written % EXPORT_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    // Helper methods to convert between Entity and DTO (package-private for the benchmarks in src/perf)
+    CustomerDTO mapToDTO(Customer customer) {
         return CustomerDTO.builder()
                 .id(customer.getId())
                 .firstName(customer.getFirstName())
@@ -92,7 +158,7 @@ public class CustomerServiceImpl implements CustomerService {
                 .build();
     }
 
-    private Customer mapToEntity(CustomerDTO customerDTO) {
+    Customer mapToEntity(CustomerDTO customerDTO) {
         return Customer.builder()
                 .firstName(customerDTO.getFirstName())
                 .lastName(customerDTO.getLastName())
@@ -0,0 +1,65 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+// Default mode: every reservation is a guarded UPDATE on the books table, run in the caller's transaction
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bookstore.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryService implements InventoryService {
+
+    private final BookRepository bookRepository;
+
+    // Books are updated in id order to keep row locks acquired in a consistent order across
+    // transactions. If any book runs short, the decrements already applied are put back.
+    @Override
+    public Reservation reserve(Map<Long, Integer> quantities) {
+        List<Long> bookIds = new ArrayList<>(quantities.keySet());
+        Collections.sort(bookIds);
+
+        Map<Long, Integer> remainingStock = new HashMap<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            Long bookId = bookIds.get(i);
+            OptionalInt remaining = bookRepository.decrementStock(bookId, quantities.get(bookId));
+            if (remaining.isEmpty()) {
+                for (int j = 0; j < i; j++) {
+                    bookRepository.incrementStock(bookIds.get(j), quantities.get(bookIds.get(j)));
+                }
+                return Reservation.shortOf(bookId);
+            }
+            remainingStock.put(bookId, remaining.getAsInt());
+        }
+        return Reservation.reserved(remainingStock);
+    }
+
+    @Override
+    public int availableStock(Book book) {
+        return book.getStockQuantity();
+    }
+
+    @Override
+    public void applyStockUpdate(Book book, int newQuantity) {
+        book.setStockQuantity(newQuantity);
+    }
+
+    @Override
+    public void bookCreated(Book book) {
+        // Nothing to track, the books table is the source of truth
+    }
+
+    @Override
+    public void bookDeleted(Long bookId) {
+        // Nothing to track, the books table is the source of truth
+    }
+}
@@ -0,0 +1,21 @@
+package com.wooseok.bookstore.service;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Strong ETags built from version columns (updatedAt, counts) and the request's own parameters
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Object... parts) {
+        String version = Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,290 @@
+package com.wooseok.bookstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Reads an import feed one row at a time off a character stream, so an import holds at most one
+// chunk of rows whatever the size of the feed. A row that cannot be parsed comes back with an
+// error. A record longer than MAX_RECORD_CHARS ends the feed with an IllegalArgumentException,
+// since an unbalanced quote would otherwise swallow the rest of it.
+abstract class FeedReader<T> {
+
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    // line: where the row starts in the feed (1-based). value is null when the row could not be
+    // read at all; a CSV row with a bad field keeps the fields that did parse, for error reports.
+    record Row<T>(long line, T value, String error) {
+    }
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    protected long line = 1;
+
+    private FeedReader(Reader in) {
+        this.in = in;
+    }
+
+    // CSV with a header row. columns are the DTO property names the mapper reads; the header may
+    // name them in any order and case, camelCase or snake_case. The header is read right away, so
+    // a feed with missing required columns is rejected before anything is written.
+    static <T> FeedReader<T> csv(Reader in, List<String> columns, List<String> required,
+                                 Function<Fields, T> mapper) throws IOException {
+        Csv<T> reader = new Csv<>(in, columns, mapper);
+        reader.readHeader(required);
+        return reader;
+    }
+
+    // One JSON object per line, in the DTO shape (the same as the export endpoints write)
+    static <T> FeedReader<T> ndjson(Reader in, ObjectReader reader) {
+        return new Ndjson<>(in, reader);
+    }
+
+    // Next row, or null at the end of the feed
+    abstract Row<T> next() throws IOException;
+
+    protected int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    protected int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    protected static IllegalArgumentException tooLong(long line) {
+        return new IllegalArgumentException("Line " + line + ": record exceeds " + MAX_RECORD_CHARS + " characters");
+    }
+
+    private static String normalize(String column) {
+        return column.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+
+    // The fields of one CSV record, by column name: trimmed, with empty fields as null so the bean
+    // validation messages apply. Numbers that do not parse are recorded as the row's error.
+    static final class Fields {
+        private final Map<String, Integer> columns;
+        private final List<String> record;
+        private String error;
+
+        private Fields(Map<String, Integer> columns, List<String> record) {
+            this.columns = columns;
+            this.record = record;
+        }
+
+        String text(String column) {
+            Integer index = columns.get(column);
+            if (index == null) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        BigDecimal decimal(String column) {
+            String value = text(column);
+            try {
+                return value != null ? new BigDecimal(value) : null;
+            } catch (NumberFormatException ex) {
+                reject(column + ": not a number: " + value);
+                return null;
+            }
+        }
+
+        Integer integer(String column) {
+            String value = text(column);
+            try {
+                return value != null ? Integer.valueOf(value) : null;
+            } catch (NumberFormatException ex) {
+                reject(column + ": not a whole number: " + value);
+                return null;
+            }
+        }
+
+        private void reject(String message) {
+            if (error == null) {
+                error = message;
+            }
+        }
+    }
+
+    private static final class Ndjson<T> extends FeedReader<T> {
+        private final ObjectReader reader;
+        private final StringBuilder text = new StringBuilder();
+
+        private Ndjson(Reader in, ObjectReader reader) {
+            super(in);
+            this.reader = reader;
+        }
+
+        @Override
+        Row<T> next() throws IOException {
+            while (readLine()) {
+                long rowLine = line - 1;
+                if (text.toString().isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row<>(rowLine, reader.readValue(text.toString()), null);
+                } catch (JsonProcessingException ex) {
+                    return new Row<>(rowLine, null, "Malformed JSON: " + ex.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+
+        private boolean readLine() throws IOException {
+            text.setLength(0);
+            int c = read();
+            if (c == -1) {
+                return false;
+            }
+            while (c != -1 && c != '\n') {
+                if (c != '\r') {
+                    if (text.length() == MAX_RECORD_CHARS) {
+                        throw tooLong(line);
+                    }
+                    text.append((char) c);
+                }
+                c = read();
+            }
+            line++;
+            return true;
+        }
+    }
+
+    // RFC 4180: fields holding commas, quotes or line breaks are double-quoted, with "" for a
+    // quote inside them. Unknown columns are ignored.
+    private static final class Csv<T> extends FeedReader<T> {
+        // Normalized header name -> property name
+        private final Map<String, String> known = new HashMap<>();
+        private final Function<Fields, T> mapper;
+        // Property name -> field index
+        private final Map<String, Integer> columns = new HashMap<>();
+        private final StringBuilder field = new StringBuilder();
+        private int width;
+
+        private Csv(Reader in, List<String> known, Function<Fields, T> mapper) {
+            super(in);
+            known.forEach(column -> this.known.put(normalize(column), column));
+            this.mapper = mapper;
+        }
+
+        private void readHeader(List<String> required) throws IOException {
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV feed is empty, expected a header row");
+            }
+            width = header.size();
+            for (int i = 0; i < header.size(); i++) {
+                // A byte order mark from spreadsheet exports would otherwise stick to the first name
+                String column = known.get(normalize(header.get(i).replace("\uFEFF", "")));
+                if (column != null) {
+                    columns.putIfAbsent(column, i);
+                }
+            }
+            List<String> missing = required.stream()
+                    .filter(column -> !columns.containsKey(column))
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("CSV header is missing columns: " + String.join(", ", missing));
+            }
+        }
+
+        @Override
+        Row<T> next() throws IOException {
+            while (true) {
+                long rowLine = line;
+                List<String> record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                if (record.size() != width) {
+                    return new Row<>(rowLine, null, "Expected " + width + " fields, found " + record.size());
+                }
+                Fields fields = new Fields(columns, record);
+                T value = mapper.apply(fields);
+                return new Row<>(rowLine, value, fields.error);
+            }
+        }
+
+        // The fields of one record, or null at the end of the input
+        private List<String> readRecord() throws IOException {
+            long startLine = line;
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>(Math.max(width, 8));
+            field.setLength(0);
+            boolean quoted = false;
+            int length = 0;
+            while (true) {
+                if (c == -1) {
+                    if (quoted) {
+                        throw new IllegalArgumentException("Line " + startLine + ": quoted field is never closed");
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (++length > MAX_RECORD_CHARS) {
+                    throw tooLong(startLine);
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.wooseok.bookstore.service;
+
+// Feed formats of the bulk import endpoints: CSV with a header row, or newline-delimited JSON
+public enum ImportFormat { CSV, NDJSON }
@@ -0,0 +1,226 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Flash-sale mode: available stock lives in memory and orders reserve against it without
+// touching the books table. Net changes per book are coalesced and written behind in
+// periodic batches. Assumes this instance is the only writer of stock.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bookstore.inventory.mode", havingValue = "memory")
+public class InMemoryInventoryService implements InventoryService {
+
+    private static final int STRIPES = 64;
+
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = createStripes();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Startup hydration from the books table
+    @PostConstruct
+    void hydrate() {
+        bookRepository.findAllStockLevels().forEach(level ->
+                available.put(level.getId(), new AtomicInteger(level.getStockQuantity())));
+        log.info("Inventory engine hydrated with {} books", available.size());
+    }
+
+    // All stripes covering the order are locked in ascending order, so the whole order is
+    // checked and applied as one step and concurrent orders cannot deadlock.
+    @Override
+    public Reservation reserve(Map<Long, Integer> quantities) {
+        Map<Long, AtomicInteger> counters = new TreeMap<>();
+        quantities.keySet().forEach(bookId -> counters.put(bookId, counter(bookId)));
+
+        Map<Long, Integer> remainingStock = new HashMap<>();
+        List<ReentrantLock> locks = lockStripes(counters.keySet());
+        try {
+            for (Map.Entry<Long, AtomicInteger> entry : counters.entrySet()) {
+                if (entry.getValue().get() < quantities.get(entry.getKey())) {
+                    return Reservation.shortOf(entry.getKey());
+                }
+            }
+            counters.forEach((bookId, counter) -> {
+                remainingStock.put(bookId, counter.addAndGet(-quantities.get(bookId)));
+                addPendingDelta(bookId, -quantities.get(bookId));
+            });
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
+
+        // Give the stock back if the order's transaction does not commit
+        onRollback(() -> release(quantities));
+        return Reservation.reserved(remainingStock);
+    }
+
+    @Override
+    public int availableStock(Book book) {
+        AtomicInteger counter = available.get(book.getId());
+        return counter != null ? counter.get() : book.getStockQuantity();
+    }
+
+    // Catalog edits go through the engine as a delta, so reservations that have not been
+    // flushed yet are not lost when the new absolute value reaches the table.
+    @Override
+    public void applyStockUpdate(Book book, int newQuantity) {
+        AtomicInteger counter = counter(book.getId());
+        int delta;
+
+        List<ReentrantLock> locks = lockStripes(List.of(book.getId()));
+        try {
+            delta = newQuantity - counter.getAndSet(newQuantity);
+            addPendingDelta(book.getId(), delta);
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
+
+        onRollback(() -> adjust(book.getId(), -delta));
+    }
+
+    @Override
+    public void bookCreated(Book book) {
+        available.put(book.getId(), new AtomicInteger(book.getStockQuantity()));
+    }
+
+    @Override
+    public void bookDeleted(Long bookId) {
+        available.remove(bookId);
+        pendingDeltas.remove(bookId);
+    }
+
+    // Write-behind: drain the coalesced net deltas and apply them in one batched transaction
+    @Scheduled(fixedDelayString = "${bookstore.inventory.flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Integer> deltas = new TreeMap<>();
+            pendingDeltas.forEach((bookId, delta) -> {
+                int value = delta.getAndSet(0);
+                if (value != 0) {
+                    deltas.put(bookId, value);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+                deltas.forEach((bookId, delta) -> batchArgs.add(new Object[]{delta, now, bookId}));
+
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "UPDATE books SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE id = ?",
+                        batchArgs));
+
+                // The write bypassed Hibernate, so drop the cached copies of the flushed books
+                deltas.keySet().forEach(bookId -> entityManagerFactory.getCache().evict(Book.class, bookId));
+            } catch (RuntimeException ex) {
+                // Keep the deltas for the next run
+                deltas.forEach(this::addPendingDelta);
+                log.warn("Inventory flush of {} books failed, will retry", deltas.size(), ex);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void release(Map<Long, Integer> quantities) {
+        quantities.forEach(this::adjust);
+    }
+
+    private void adjust(Long bookId, int delta) {
+        AtomicInteger counter = counter(bookId);
+        List<ReentrantLock> locks = lockStripes(List.of(bookId));
+        try {
+            counter.addAndGet(delta);
+            addPendingDelta(bookId, delta);
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    // Books created after hydration (or by another instance) are loaded on first use
+    private AtomicInteger counter(Long bookId) {
+        AtomicInteger counter = available.get(bookId);
+        if (counter != null) {
+            return counter;
+        }
+        int stock = bookRepository.findStockQuantityById(bookId).orElse(0);
+        return available.computeIfAbsent(bookId, id -> new AtomicInteger(stock));
+    }
+
+    private void addPendingDelta(Long bookId, int delta) {
+        pendingDeltas.computeIfAbsent(bookId, id -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    private List<ReentrantLock> lockStripes(Iterable<Long> bookIds) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        bookIds.forEach(bookId -> stripeIndexes.add(Math.floorMod(bookId.hashCode(), STRIPES)));
+
+        List<ReentrantLock> locks = new ArrayList<>(stripeIndexes.size());
+        for (int index : stripeIndexes) {
+            stripes[index].lock();
+            locks.add(stripes[index]);
+        }
+        return locks;
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static ReentrantLock[] createStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -0,0 +1,40 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.model.Book;
+
+import java.util.Map;
+
+// Owns every change to book stock so the order path can switch between the database
+// and the in-memory engine (bookstore.inventory.mode=database|memory)
+public interface InventoryService {
+
+    // Reserves all quantities (book id -> quantity) or none of them
+    Reservation reserve(Map<Long, Integer> quantities);
+
+    // Stock as the engine sees it; may be ahead of the books table when writes are deferred
+    int availableStock(Book book);
+
+    // Stock edits from the catalog (e.g. updateBook)
+    void applyStockUpdate(Book book, int newQuantity);
+
+    void bookCreated(Book book);
+
+    void bookDeleted(Long bookId);
+
+    // Either the book that ran short, or the stock each book has left once the order took its share,
+    // as the engine saw it when it applied the decrement
+    record Reservation(Long shortBookId, Map<Long, Integer> remainingStock) {
+
+        static Reservation reserved(Map<Long, Integer> remainingStock) {
+            return new Reservation(null, remainingStock);
+        }
+
+        static Reservation shortOf(Long bookId) {
+            return new Reservation(bookId, Map.of());
+        }
+
+        boolean isReserved() {
+            return shortBookId == null;
+        }
+    }
+}
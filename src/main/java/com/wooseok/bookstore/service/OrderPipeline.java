@@ -0,0 +1,162 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.dto.OrderStatusDTO;
+import com.wooseok.bookstore.exception.OrderQueueFullException;
+import com.wooseok.bookstore.model.PendingOrder;
+import com.wooseok.bookstore.repository.PendingOrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+// Async order mode: POST /api/orders only validates and stores the order as PENDING, and the stock
+// work happens here, off the request thread. Orders are partitioned by their lowest book id and each
+// partition has one worker that takes its queue in batches and confirms or cancels every order of a
+// batch in one transaction, so orders for a hot book are serialized on one thread instead of
+// queueing on the book's row lock. Each partition admits at most queue-capacity orders; beyond that
+// submissions are rejected (503) before anything is written. The pending_orders journal makes the
+// queues durable: entries left over from before a restart are queued again at startup.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bookstore.orders.mode", havingValue = "async")
+public class OrderPipeline {
+
+    private final OrderService orderService;
+    private final PendingOrderRepository pendingOrderRepository;
+
+    @Value("${bookstore.orders.async.partitions:8}")
+    private int partitionCount;
+
+    @Value("${bookstore.orders.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${bookstore.orders.async.batch-size:100}")
+    private int batchSize;
+
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private Partition[] partitions;
+
+    @PostConstruct
+    void start() {
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+            partitions[i].worker = Thread.ofPlatform()
+                    .name("order-partition-" + i)
+                    .daemon(true)
+                    .start(partitions[i]::run);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        // Unprocessed orders stay in pending_orders and are picked up on the next start
+        for (Partition partition : partitions) {
+            partition.worker.interrupt();
+        }
+    }
+
+    public OrderStatusDTO submit(OrderDTO orderDTO) {
+        Partition partition = partitionFor(OrderServiceImpl.partitionKey(orderDTO));
+        if (!partition.capacity.tryAcquire()) {
+            throw new OrderQueueFullException("Order queue is full, please retry shortly");
+        }
+
+        OrderDTO accepted;
+        try {
+            accepted = orderService.acceptOrder(orderDTO);
+        } catch (RuntimeException ex) {
+            partition.capacity.release();
+            throw ex;
+        }
+        partition.queue.add(accepted.getId());
+
+        return OrderStatusDTO.builder()
+                .orderId(accepted.getId())
+                .status(accepted.getStatus())
+                .build();
+    }
+
+    // Queues the orders accepted before this instance started. Runs in the background and waits for
+    // queue capacity like any other submission, so a large backlog does not hold up startup.
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<PendingOrder> leftOver = pendingOrderRepository.findByAcceptedAtBeforeOrderByOrderIdAsc(startedAt);
+        if (leftOver.isEmpty()) {
+            return;
+        }
+        log.info("Re-queueing {} orders accepted before the restart", leftOver.size());
+        Thread.ofVirtual().name("order-recovery").start(() -> {
+            for (PendingOrder pendingOrder : leftOver) {
+                Partition partition = partitionFor(pendingOrder.getPartitionKey());
+                partition.capacity.acquireUninterruptibly();
+                partition.queue.add(pendingOrder.getOrderId());
+            }
+        });
+    }
+
+    private Partition partitionFor(long partitionKey) {
+        return partitions[(int) Math.floorMod(partitionKey, (long) partitionCount)];
+    }
+
+    private final class Partition {
+        private final int index;
+        private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+        private final Semaphore capacity = new Semaphore(queueCapacity);
+        private Thread worker;
+
+        private Partition(int index) {
+            this.index = index;
+        }
+
+        // Single writer: takes whatever is queued, up to batch-size orders, and processes it together
+        private void run() {
+            List<Long> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                queue.drainTo(batch, batchSize - 1);
+                capacity.release(batch.size());
+
+                process(batch);
+                batch.clear();
+            }
+        }
+
+        private void process(List<Long> batch) {
+            try {
+                orderService.processAcceptedOrders(batch);
+            } catch (RuntimeException batchFailure) {
+                // One bad order must not hold up the rest of its batch: retry them one by one
+                log.warn("Order batch of {} failed on partition {}, retrying orders one by one", batch.size(), index, batchFailure);
+                for (Long orderId : batch) {
+                    try {
+                        orderService.processAcceptedOrders(List.of(orderId));
+                    } catch (RuntimeException ex) {
+                        // Left in pending_orders; processed again after the next restart
+                        log.error("Order {} could not be processed on partition {}", orderId, index, ex);
+                    }
+                }
+            }
+        }
+    }
+}
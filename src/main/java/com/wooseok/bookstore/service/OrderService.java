@@ -1,12 +1,29 @@
 package com.wooseok.bookstore.service;
 
+import com.wooseok.bookstore.dto.BatchOrderResultDTO;
+import com.wooseok.bookstore.dto.CursorPageDTO;
 import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.dto.OrderStatusDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface OrderService {
     OrderDTO createOrder(OrderDTO orderDTO);
+    // 100 orders per transaction
+    List<BatchOrderResultDTO> createOrders(List<OrderDTO> orderDTOs);
+    // Async mode, accept step: validates the order and stores it as PENDING with a pending_orders
+    // entry, without touching stock.
+    OrderDTO acceptOrder(OrderDTO orderDTO);
+    // Async mode, processing step: reserves stock for a batch of accepted orders and moves each one
+    // to CONFIRMED or CANCELLED.
+    void processAcceptedOrders(List<Long> orderIds);
+    OrderStatusDTO getOrderStatus(Long orderId);
     OrderDTO getOrderById(Long orderId);
     List<OrderDTO> getCustomerOrders(Long customerId);
+    CursorPageDTO<OrderDTO> getCustomerOrders(Long customerId, Long after, int limit);
     List<OrderDTO> getAllOrders();
-}
\ No newline at end of file
+    CursorPageDTO<OrderDTO> getOrders(Long after, int limit);
+    void exportOrders(OutputStream outputStream) throws IOException;
+}
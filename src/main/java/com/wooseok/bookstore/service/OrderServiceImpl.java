@@ -1,74 +1,295 @@
 package com.wooseok.bookstore.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wooseok.bookstore.dto.BatchOrderResultDTO;
+import com.wooseok.bookstore.dto.CursorPageDTO;
 import com.wooseok.bookstore.dto.OrderDTO;
 import com.wooseok.bookstore.dto.OrderItemDTO;
+import com.wooseok.bookstore.dto.OrderStatusDTO;
 import com.wooseok.bookstore.exception.OrderValidationException;
 import com.wooseok.bookstore.exception.ResourceNotFoundException;
 import com.wooseok.bookstore.model.Book;
 import com.wooseok.bookstore.model.Customer;
 import com.wooseok.bookstore.model.Order;
 import com.wooseok.bookstore.model.OrderItem;
+import com.wooseok.bookstore.model.PendingOrder;
 import com.wooseok.bookstore.repository.BookRepository;
 import com.wooseok.bookstore.repository.CustomerRepository;
+import com.wooseok.bookstore.repository.OrderItemRepository;
 import com.wooseok.bookstore.repository.OrderRepository;
+import com.wooseok.bookstore.repository.PendingOrderRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    // Orders per transaction when ingesting a batch
+    private static final int BATCH_CHUNK_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final CustomerRepository customerRepository;
     private final BookRepository bookRepository;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final SalesReportService salesReportService;
+    private final BestsellerService bestsellerService;
+    private final StockAlertService stockAlertService;
+    private final PendingOrderRepository pendingOrderRepository;
 
     @Override
     public OrderDTO createOrder(OrderDTO orderDTO) {
+        // All of the order's books are loaded with one query
+        Map<Long, Book> books = findBooks(List.of(orderDTO));
+        Order order = buildOrder(orderDTO,
+                customerId -> customerRepository.findById(customerId).orElse(null),
+                books::get);
+        reserveStock(order);
+
+        // Save the order (cascades to order items)
+        Order savedOrder = orderRepository.save(order);
+        salesReportService.recordOrders(List.of(savedOrder));
+        bestsellerService.recordOrders(List.of(savedOrder));
+
+        return mapToDTO(savedOrder);
+    }
+
+    @Override
+    public OrderDTO acceptOrder(OrderDTO orderDTO) {
+        Map<Long, Book> books = findBooks(List.of(orderDTO));
+        Order order = buildOrder(orderDTO,
+                customerId -> customerRepository.findById(customerId).orElse(null),
+                books::get);
+
+        Order savedOrder = orderRepository.save(order);
+        pendingOrderRepository.save(PendingOrder.builder()
+                .orderId(savedOrder.getId())
+                .partitionKey(partitionKey(orderDTO))
+                .build());
+
+        return mapToDTO(savedOrder);
+    }
+
+    // Runs on a partition worker. Each order is claimed by deleting its pending_orders entry first;
+    // orders that are no longer pending (already handled, or being handled by another worker after
+    // a restart re-queued them) are skipped, so processing an id twice is harmless.
+    @Override
+    public void processAcceptedOrders(List<Long> orderIds) {
+        List<Long> claimedIds = pendingOrderRepository.claim(orderIds);
+        if (claimedIds.isEmpty()) {
+            return;
+        }
+
+        List<Order> confirmed = new ArrayList<>();
+        for (Order order : orderRepository.findAllWithDetailsByIdIn(claimedIds)) {
+            try {
+                reserveStock(order);
+                order.setStatus(Order.OrderStatus.CONFIRMED);
+                confirmed.add(order);
+            } catch (IllegalArgumentException ex) {
+                order.setStatus(Order.OrderStatus.CANCELLED);
+            }
+        }
+
+        salesReportService.recordOrders(confirmed);
+        bestsellerService.recordOrders(confirmed);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderStatusDTO getOrderStatus(Long orderId) {
+        Order.OrderStatus status = orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        return OrderStatusDTO.builder()
+                .orderId(orderId)
+                .status(status.name())
+                .build();
+    }
+
+    // Orders are routed by their lowest book id, so every order for a single book goes to the same worker
+    static long partitionKey(OrderDTO orderDTO) {
+        return orderDTO.getItems() == null ? 0L : orderDTO.getItems().stream()
+                .map(OrderItemDTO::getBookId)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .min()
+                .orElse(0L);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BatchOrderResultDTO> createOrders(List<OrderDTO> orderDTOs) {
+        if (orderDTOs == null || orderDTOs.isEmpty()) {
+            throw new OrderValidationException("Batch must contain at least one order");
+        }
+        if (orderDTOs.size() > MAX_BATCH_SIZE) {
+            throw new OrderValidationException("Batch cannot contain more than " + MAX_BATCH_SIZE + " orders");
+        }
+
+        List<BatchOrderResultDTO> results = new ArrayList<>(orderDTOs.size());
+        for (int start = 0; start < orderDTOs.size(); start += BATCH_CHUNK_SIZE) {
+            int end = Math.min(start + BATCH_CHUNK_SIZE, orderDTOs.size());
+            results.addAll(createOrderChunk(orderDTOs, start, end));
+        }
+        return results;
+    }
+
+    // Each chunk runs in its own transaction, so a failing chunk never rolls back the ones before it
+    private List<BatchOrderResultDTO> createOrderChunk(List<OrderDTO> orderDTOs, int start, int end) {
+        try {
+            return transactionTemplate.execute(status -> persistOrderChunk(orderDTOs, start, end));
+        } catch (DataIntegrityViolationException chunkFailure) {
+            // One order the database rejects (e.g. a total too large for its column) must not cost the
+            // rest of its chunk: retry them one by one, as the imports do. The chunk's stock was given back
+            // with its rollback.
+            log.warn("Order chunk {}-{} failed, retrying its orders one by one", start, end - 1, chunkFailure);
+            List<BatchOrderResultDTO> results = new ArrayList<>(end - start);
+            for (int index = start; index < end; index++) {
+                int single = index;
+                try {
+                    results.addAll(transactionTemplate.execute(status -> persistOrderChunk(orderDTOs, single, single + 1)));
+                } catch (DataIntegrityViolationException ex) {
+                    results.add(failedResult(index, NestedExceptionUtils.getMostSpecificCause(ex).getMessage()));
+                }
+            }
+            return results;
+        } catch (RuntimeException ex) {
+            List<BatchOrderResultDTO> results = new ArrayList<>(end - start);
+            for (int index = start; index < end; index++) {
+                results.add(failedResult(index, "Order chunk could not be saved: " + ex.getMessage()));
+            }
+            return results;
+        }
+    }
+
+    private List<BatchOrderResultDTO> persistOrderChunk(List<OrderDTO> orderDTOs, int start, int end) {
+        List<OrderDTO> chunk = orderDTOs.subList(start, end);
+
+        // Load every referenced customer and book with one query each
+        Set<Long> customerIds = chunk.stream()
+                .map(OrderDTO::getCustomerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Customer> customers = customerRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, Book> books = findBooks(chunk);
+
+        // Validate and build each order on its own; rejected orders give back any stock they took
+        BatchOrderResultDTO[] results = new BatchOrderResultDTO[chunk.size()];
+        List<Order> orders = new ArrayList<>();
+        List<Integer> orderPositions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                Order order = buildOrder(chunk.get(i), customers::get, books::get);
+                reserveStock(order);
+                orders.add(order);
+                orderPositions.add(i);
+            } catch (ResourceNotFoundException | OrderValidationException | IllegalArgumentException ex) {
+                results[i] = failedResult(start + i, ex.getMessage());
+            }
+        }
+
+        // Insert the accepted orders together so Hibernate can batch the statements
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        orderRepository.flush();
+        salesReportService.recordOrders(savedOrders);
+        bestsellerService.recordOrders(savedOrders);
+
+        for (int i = 0; i < savedOrders.size(); i++) {
+            int position = orderPositions.get(i);
+            results[position] = BatchOrderResultDTO.builder()
+                    .index(start + position)
+                    .success(true)
+                    .order(mapToDTO(savedOrders.get(i)))
+                    .build();
+        }
+        return Arrays.asList(results);
+    }
+
+    private Map<Long, Book> findBooks(List<OrderDTO> orderDTOs) {
+        Set<Long> bookIds = orderDTOs.stream()
+                .filter(orderDTO -> orderDTO.getItems() != null)
+                .flatMap(orderDTO -> orderDTO.getItems().stream())
+                .map(OrderItemDTO::getBookId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+    }
+
+    // Validates the order against the given lookups and builds it as PENDING. Stock is not touched
+    // here: callers reserve it once every item has passed validation (see reserveStock).
+    private Order buildOrder(OrderDTO orderDTO,
+                             Function<Long, Customer> customerLookup,
+                             Function<Long, Book> bookLookup) {
         // Validate customer exists
-        Customer customer = customerRepository.findById(orderDTO.getCustomerId())
-                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", orderDTO.getCustomerId()));
+        Customer customer = customerLookup.apply(orderDTO.getCustomerId());
+        if (customer == null) {
+            throw new ResourceNotFoundException("Customer", "id", orderDTO.getCustomerId());
+        }
 
         // Validate cart is not empty
         if (orderDTO.getItems() == null || orderDTO.getItems().isEmpty()) {
             throw new OrderValidationException("Cannot create order with empty cart");
         }
 
-        // Create the order
-        Order order = new Order();
-        order.setCustomer(customer);
-        order.setStatus(Order.OrderStatus.PENDING);
-
-        List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        // Process each item in the order
+        // Resolve each book
+        Map<Long, Book> books = new LinkedHashMap<>();
         for (OrderItemDTO itemDTO : orderDTO.getItems()) {
             // Validate quantity
-            if (itemDTO.getQuantity() <= 0) {
+            if (itemDTO.getQuantity() == null || itemDTO.getQuantity() <= 0) {
                 throw new OrderValidationException("Quantity must be greater than 0 for book ID: " + itemDTO.getBookId());
             }
 
             // Find the book
-            Book book = bookRepository.findById(itemDTO.getBookId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Book", "id", itemDTO.getBookId()));
-
-            // Check stock availability
-            if (book.getStockQuantity() < itemDTO.getQuantity()) {
-                throw new IllegalArgumentException(
-                        "Insufficient stock for book: " + book.getTitle() +
-                                ". Available: " + book.getStockQuantity() + ", Requested: " + itemDTO.getQuantity());
+            Book book = bookLookup.apply(itemDTO.getBookId());
+            if (book == null) {
+                throw new ResourceNotFoundException("Book", "id", itemDTO.getBookId());
             }
 
-            // Reduce stock
-            book.setStockQuantity(book.getStockQuantity() - itemDTO.getQuantity());
-            bookRepository.save(book);
+            books.put(book.getId(), book);
+        }
+
+        // Create the order
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(Order.OrderStatus.PENDING);
+
+        List<OrderItem> orderItems = new ArrayList<>();
+
+        for (OrderItemDTO itemDTO : orderDTO.getItems()) {
+            Book book = books.get(itemDTO.getBookId());
 
             // Create order item
             OrderItem orderItem = new OrderItem();
@@ -78,32 +299,75 @@ public class OrderServiceImpl implements OrderService {
             orderItem.setPrice(book.getPrice());
 
             orderItems.add(orderItem);
-
-            // Calculate subtotal and add to total
-            BigDecimal subtotal = book.getPrice().multiply(BigDecimal.valueOf(itemDTO.getQuantity()));
-            totalAmount = totalAmount.add(subtotal);
         }
 
         order.setOrderItems(orderItems);
-        order.setTotalAmount(totalAmount);
+        order.setTotalAmount(calculateTotal(orderItems));
+        return order;
+    }
 
-        // Save the order (cascades to order items)
-        Order savedOrder = orderRepository.save(order);
+    // Calculate subtotals and add them to the total
+    static BigDecimal calculateTotal(List<OrderItem> orderItems) {
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderItem orderItem : orderItems) {
+            totalAmount = totalAmount.add(subtotal(orderItem.getPrice(), orderItem.getQuantity()));
+        }
+        return totalAmount;
+    }
 
-        return mapToDTO(savedOrder);
+    static BigDecimal subtotal(BigDecimal price, int quantity) {
+        return price.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    // All or nothing: the inventory service either reserves every book in the order or none of them
+    private void reserveStock(Order order) {
+        // Total up the requested quantity per book
+        Map<Long, Book> books = new LinkedHashMap<>();
+        Map<Long, Integer> requestedQuantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            books.put(item.getBook().getId(), item.getBook());
+            requestedQuantities.merge(item.getBook().getId(), item.getQuantity(), Integer::sum);
+        }
+
+        InventoryService.Reservation reservation = inventoryService.reserve(requestedQuantities);
+        if (!reservation.isReserved()) {
+            Long bookId = reservation.shortBookId();
+            throw new IllegalArgumentException(
+                    "Insufficient stock for book: " + books.get(bookId).getTitle() +
+                            ". Requested: " + requestedQuantities.get(bookId));
+        }
+
+        // Stock as the decrement left it, so concurrent orders each report their own step down;
+        // low-stock subscribers hear about it once the order commits
+        reservation.remainingStock().forEach((bookId, remaining) -> stockAlertService.stockChanged(
+                books.get(bookId), remaining + requestedQuantities.get(bookId), remaining));
+    }
+
+    private BatchOrderResultDTO failedResult(int index, String error) {
+        return BatchOrderResultDTO.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
     }
 
     @Override
     public List<OrderDTO> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
+        List<Order> orders = orderRepository.findAllWithDetails();
         return orders.stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<OrderDTO> getOrders(Long after, int limit) {
+        List<Long> orderIds = orderRepository.findIdsAfter(Pagination.after(after), Pagination.limit(limit));
+        return orderPage(orderIds, limit);
+    }
+
     @Override
     public OrderDTO getOrderById(Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdWithDetails(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         return mapToDTO(order);
     }
@@ -111,24 +375,96 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public List<OrderDTO> getCustomerOrders(Long customerId) {
         // Validate customer exists
-        customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
+        if (!customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer", "id", customerId);
+        }
 
-        List<Order> orders = orderRepository.findByCustomerId(customerId);
+        List<Order> orders = orderRepository.findByCustomerIdWithDetails(customerId);
         return orders.stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
-    // Helper method to convert Order entity to DTO
-    private OrderDTO mapToDTO(Order order) {
-        List<OrderItemDTO> itemDTOs = order.getOrderItems().stream()
+    @Override
+    public CursorPageDTO<OrderDTO> getCustomerOrders(Long customerId, Long after, int limit) {
+        // Validate customer exists
+        if (!customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer", "id", customerId);
+        }
+
+        List<Long> orderIds = orderRepository.findIdsByCustomerIdAfter(
+                customerId, Pagination.after(after), Pagination.limit(limit));
+        return orderPage(orderIds, limit);
+    }
+
+    // Loads the orders of one page of ids with their details in a single query
+    private CursorPageDTO<OrderDTO> orderPage(List<Long> orderIds, int limit) {
+        CursorPageDTO<Long> idPage = Pagination.page(orderIds, limit, Function.identity(), Function.identity());
+
+        List<OrderDTO> orders = idPage.getItems().isEmpty()
+                ? new ArrayList<>()
+                : orderRepository.findAllWithDetailsByIdIn(idPage.getItems()).stream()
+                        .map(this::mapToDTO)
+                        .collect(Collectors.toList());
+
+        return CursorPageDTO.<OrderDTO>builder()
+                .items(orders)
+                .limit(limit)
+                .nextCursor(idPage.getNextCursor())
+                .build();
+    }
+
+    // Streams rows as newline-delimited JSON. The persistence context is cleared every
+    // EXPORT_CHUNK_SIZE orders, so memory stays flat however large the table is.
+    // Items are loaded with one query per chunk of orders rather than fetch-joined into the stream.
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(OrderDTO.class);
+        try (Stream<Order> orders = orderRepository.streamAllWithCustomer()) {
+            List<Order> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            for (Iterator<Order> iterator = orders.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    writeOrderChunk(chunk, writer, outputStream);
+                }
+            }
+            writeOrderChunk(chunk, writer, outputStream);
+        }
+    }
+
+    private void writeOrderChunk(List<Order> chunk, ObjectWriter writer, OutputStream outputStream) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<Long> orderIds = chunk.stream().map(Order::getId).collect(Collectors.toList());
+        Map<Long, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrderIdInWithBook(orderIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+
+        for (Order order : chunk) {
+            OrderDTO orderDTO = mapToDTO(order, itemsByOrder.getOrDefault(order.getId(), List.of()));
+            outputStream.write(writer.writeValueAsBytes(orderDTO));
+            outputStream.write('\n');
+        }
+
+        chunk.clear();
+        entityManager.clear();
+    }
+
+    // Helper method to convert Order entity to DTO (package-private for the benchmarks in src/perf)
+    OrderDTO mapToDTO(Order order) {
+        return mapToDTO(order, order.getOrderItems());
+    }
+
+    OrderDTO mapToDTO(Order order, List<OrderItem> orderItems) {
+        List<OrderItemDTO> itemDTOs = orderItems.stream()
                 .map(item -> OrderItemDTO.builder()
                         .bookId(item.getBook().getId())
                         .bookTitle(item.getBook().getTitle())
                         .quantity(item.getQuantity())
                         .price(item.getPrice())
-                        .subtotal(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                        .subtotal(subtotal(item.getPrice(), item.getQuantity()))
                         .build())
                 .collect(Collectors.toList());
 
@@ -138,6 +474,7 @@ public class OrderServiceImpl implements OrderService {
                 .customerName(order.getCustomer().getFirstName() + " " + order.getCustomer().getLastName())
                 .items(itemDTOs)
                 .totalAmount(order.getTotalAmount())
+                .status(order.getStatus().name())
                 .orderDate(order.getOrderDate())
                 .build();
     }
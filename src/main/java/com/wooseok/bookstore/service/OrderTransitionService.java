@@ -0,0 +1,14 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.StatusTransitionResultDTO;
+
+import java.util.List;
+
+public interface OrderTransitionService {
+
+    // Moves orders from one status to the next in chunks, one short transaction per chunk.
+    // orderIds limits the run to those orders; otherwise every order in the from status is a candidate.
+    // Two statements per chunk: a keyset SELECT and a guarded UPDATE.
+    StatusTransitionResultDTO transitionOrders(String from, String to, List<Long> orderIds,
+                                               Long after, Integer maxOrders, Integer chunkSize);
+}
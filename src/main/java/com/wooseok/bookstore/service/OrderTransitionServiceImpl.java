@@ -0,0 +1,197 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.StatusTransitionResultDTO;
+import com.wooseok.bookstore.dto.TransitionChunkDTO;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Bulk fulfillment transitions (PENDING -> CONFIRMED -> SHIPPED -> DELIVERED). Each chunk is a
+// keyset SELECT of ids plus one UPDATE ... WHERE id IN (...) AND status = :from, committed on its
+// own, so locks are held for one chunk only and a failure loses at most the chunk in flight.
+// The status guard makes runs resumable: re-running the same request (or passing resumeAfter as
+// after) only finds the orders that have not moved yet.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderTransitionServiceImpl implements OrderTransitionService {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1_000;
+    private static final int MIN_CHUNK_SIZE = 100;
+    private static final int MAX_CHUNK_SIZE = 5_000;
+    private static final int MAX_ORDERS = 100_000;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public StatusTransitionResultDTO transitionOrders(String from, String to, List<Long> orderIds,
+                                                      Long after, Integer maxOrders, Integer chunkSize) {
+        Order.OrderStatus fromStatus = parseStatus(from);
+        Order.OrderStatus toStatus = parseStatus(to);
+        if (!fromStatus.canTransitionTo(toStatus)) {
+            throw new IllegalArgumentException("Orders cannot move from " + fromStatus + " to " + toStatus);
+        }
+        // Cancelling gives stock back and corrects the sales rollups, which a status UPDATE cannot do
+        if (toStatus == Order.OrderStatus.CANCELLED) {
+            throw new IllegalArgumentException("Orders cannot be cancelled in bulk");
+        }
+        int chunk = chunkSize != null ? chunkSize : DEFAULT_CHUNK_SIZE;
+        if (chunk < MIN_CHUNK_SIZE || chunk > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE);
+        }
+        int max = maxOrders != null ? maxOrders : MAX_ORDERS;
+        if (max < 1 || max > MAX_ORDERS) {
+            throw new IllegalArgumentException("maxOrders must be between 1 and " + MAX_ORDERS);
+        }
+        if (orderIds != null && orderIds.size() > MAX_ORDERS) {
+            throw new IllegalArgumentException("Cannot transition more than " + MAX_ORDERS + " listed orders at once");
+        }
+
+        Run run = new Run(Pagination.after(after));
+        long startedAt = System.nanoTime();
+        try {
+            if (orderIds != null) {
+                transitionListed(orderIds, fromStatus, toStatus, chunk, run);
+            } else {
+                transitionAll(fromStatus, toStatus, chunk, max, run);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Order transition {} -> {} stopped after order {}", fromStatus, toStatus, run.cursor, ex);
+            run.error = ex.getMessage();
+            run.completed = false;
+        }
+        long durationNanos = System.nanoTime() - startedAt;
+
+        StatusTransitionResultDTO result = summarize(fromStatus, toStatus, run, durationNanos);
+        log.info("Order transition {} -> {}: {} updated, {} skipped in {} chunks, {} ms ({} orders/s)",
+                fromStatus, toStatus, result.getUpdated(), result.getSkipped(), run.chunks.size(),
+                result.getDurationMillis(), Math.round(result.getOrdersPerSecond()));
+        return result;
+    }
+
+    // Scans every order in the from status by id, until none are left or max have been examined
+    private void transitionAll(Order.OrderStatus from, Order.OrderStatus to, int chunk, int max, Run run) {
+        int examined = 0;
+        while (examined < max) {
+            int size = Math.min(chunk, max - examined);
+            long chunkAfter = run.cursor;
+            TransitionChunkDTO result = timed(() -> {
+                List<Long> ids = orderRepository.findTransitionableIdsAfter(from, chunkAfter, Limit.of(size));
+                return ids.isEmpty() ? null : update(ids, from, to);
+            });
+            if (result == null) {
+                run.completed = true;
+                return;
+            }
+            run.add(result);
+            examined += result.getExamined();
+            if (result.getExamined() < size) {
+                run.completed = true;
+                return;
+            }
+        }
+        // Stopped at maxOrders; orders past the cursor may still be waiting
+        run.completed = false;
+    }
+
+    private void transitionListed(List<Long> orderIds, Order.OrderStatus from, Order.OrderStatus to, int chunk, Run run) {
+        long resumeAfter = run.cursor;
+        List<Long> ids = orderIds.stream()
+                .filter(Objects::nonNull)
+                .filter(id -> id > resumeAfter)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+
+        for (int start = 0; start < ids.size(); start += chunk) {
+            List<Long> chunkIds = ids.subList(start, Math.min(start + chunk, ids.size()));
+            run.add(timed(() -> update(chunkIds, from, to)));
+        }
+        run.completed = true;
+    }
+
+    private TransitionChunkDTO update(List<Long> ids, Order.OrderStatus from, Order.OrderStatus to) {
+        int updated = orderRepository.updateStatus(ids, from, to);
+        return TransitionChunkDTO.builder()
+                .firstOrderId(ids.get(0))
+                .lastOrderId(ids.get(ids.size() - 1))
+                .examined(ids.size())
+                .updated(updated)
+                .build();
+    }
+
+    // One transaction per chunk; the latency includes the commit
+    private TransitionChunkDTO timed(Supplier<TransitionChunkDTO> work) {
+        long start = System.nanoTime();
+        TransitionChunkDTO result = transactionTemplate.execute(status -> work.get());
+        if (result != null) {
+            result.setMillis((System.nanoTime() - start) / 1_000_000);
+        }
+        return result;
+    }
+
+    private static StatusTransitionResultDTO summarize(Order.OrderStatus from, Order.OrderStatus to, Run run, long durationNanos) {
+        long updated = run.chunks.stream().mapToLong(TransitionChunkDTO::getUpdated).sum();
+        long examined = run.chunks.stream().mapToLong(TransitionChunkDTO::getExamined).sum();
+        List<Long> latencies = run.chunks.stream()
+                .map(TransitionChunkDTO::getMillis)
+                .sorted()
+                .collect(Collectors.toList());
+        double seconds = durationNanos / 1e9;
+
+        return StatusTransitionResultDTO.builder()
+                .from(from.name())
+                .to(to.name())
+                .updated(updated)
+                .skipped(examined - updated)
+                .completed(run.completed)
+                .resumeAfter(run.chunks.isEmpty() ? null : run.cursor)
+                .error(run.error)
+                .durationMillis(durationNanos / 1_000_000)
+                .ordersPerSecond(seconds > 0 ? updated / seconds : 0)
+                .chunkMillisP50(latencies.isEmpty() ? 0 : latencies.get((latencies.size() - 1) / 2))
+                .chunkMillisMax(latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1))
+                .chunks(run.chunks)
+                .build();
+    }
+
+    private static Order.OrderStatus parseStatus(String status) {
+        try {
+            return Order.OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Unknown order status: " + status);
+        }
+    }
+
+    // Progress of one call: committed chunks and the id they reached
+    private static final class Run {
+        private final List<TransitionChunkDTO> chunks = new ArrayList<>();
+        private long cursor;
+        private boolean completed;
+        private String error;
+
+        private Run(long cursor) {
+            this.cursor = cursor;
+        }
+
+        private void add(TransitionChunkDTO chunk) {
+            chunks.add(chunk);
+            cursor = chunk.getLastOrderId();
+        }
+    }
+}
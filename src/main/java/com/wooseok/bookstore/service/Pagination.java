@@ -0,0 +1,45 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.CursorPageDTO;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Keyset (cursor) pagination helpers: pages are "WHERE id > :after ORDER BY id",
+// so page N costs the same as page 1
+final class Pagination {
+
+    static final int MAX_LIMIT = 500;
+
+    private Pagination() {
+    }
+
+    static long after(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    // One row more than the page size is fetched to tell whether another page exists
+    static Limit limit(int limit) {
+        return Limit.of(checkLimit(limit) + 1);
+    }
+
+    static <E, T> CursorPageDTO<T> page(List<E> rows, int limit, Function<E, Long> idOf, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<E> pageRows = hasNext ? rows.subList(0, limit) : rows;
+
+        return CursorPageDTO.<T>builder()
+                .items(pageRows.stream().map(mapper).collect(Collectors.toList()))
+                .limit(limit)
+                .nextCursor(hasNext ? idOf.apply(pageRows.get(pageRows.size() - 1)) : null)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.RebuildResultDTO;
+import com.wooseok.bookstore.dto.SalesReportDTO;
+import com.wooseok.bookstore.model.Order;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesReportService {
+
+    // Adds newly placed orders to the rollups, in the caller's transaction
+    void recordOrders(List<Order> orders);
+
+    // groupBy is day, book or category; reads rollup rows only
+    SalesReportDTO getSalesReport(String groupBy, LocalDate from, LocalDate to, int limit);
+
+    // Recomputes every rollup from the order history (backfill, or repair after manual data changes)
+    RebuildResultDTO rebuildRollups();
+}
@@ -0,0 +1,171 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.RebuildResultDTO;
+import com.wooseok.bookstore.dto.SalesReportDTO;
+import com.wooseok.bookstore.dto.SalesReportRowDTO;
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.model.OrderItem;
+import com.wooseok.bookstore.model.SalesRollup;
+import com.wooseok.bookstore.repository.BookRepository;
+import com.wooseok.bookstore.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SalesReportServiceImpl implements SalesReportService {
+
+    // Rollup rows per day and key; each order writes to one of them
+    private static final int SHARDS = 8;
+    private static final int DEFAULT_REPORT_DAYS = 30;
+    private static final String TOTAL_KEY = "ALL";
+
+    // Rows are upserted in this order, so concurrent orders lock shared rows in the same order
+    private static final Comparator<SalesRollup.Key> KEY_ORDER = Comparator
+            .comparing(SalesRollup.Key::getBucketDay)
+            .thenComparing(SalesRollup.Key::getDimension)
+            .thenComparing(SalesRollup.Key::getDimensionKey)
+            .thenComparing(SalesRollup.Key::getShard);
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final BookRepository bookRepository;
+
+    @Value("${bookstore.reports.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Override
+    public void recordOrders(List<Order> orders) {
+        Map<SalesRollup.Key, SalesRollup> deltas = new TreeMap<>(KEY_ORDER);
+        for (Order order : orders) {
+            LocalDate day = order.getOrderDate() != null ? order.getOrderDate().toLocalDate() : LocalDate.now();
+            int shard = (int) Math.floorMod(order.getId(), SHARDS);
+
+            // An order counts once per book and category, however many of its lines share them
+            Map<SalesRollup.Key, SalesRollup> orderDeltas = new HashMap<>();
+            for (OrderItem item : order.getOrderItems()) {
+                BigDecimal revenue = OrderServiceImpl.subtotal(item.getPrice(), item.getQuantity());
+                Book book = item.getBook();
+                addLine(orderDeltas, day, SalesRollup.Dimension.BOOK, book.getId().toString(), shard, item.getQuantity(), revenue);
+                addLine(orderDeltas, day, SalesRollup.Dimension.CATEGORY, book.getCategory(), shard, item.getQuantity(), revenue);
+                addLine(orderDeltas, day, SalesRollup.Dimension.TOTAL, TOTAL_KEY, shard, item.getQuantity(), revenue);
+            }
+            orderDeltas.forEach((key, delta) -> deltas.merge(key, delta, SalesReportServiceImpl::sum));
+        }
+        salesRollupRepository.addSales(new ArrayList<>(deltas.values()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SalesReportDTO getSalesReport(String groupBy, LocalDate from, LocalDate to, int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_REPORT_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        Pagination.checkLimit(limit);
+
+        List<SalesReportRowDTO> rows = switch (groupBy.toLowerCase(Locale.ROOT)) {
+            case "day" -> salesRollupRepository.sumByDay(SalesRollup.Dimension.TOTAL, start, end).stream()
+                    .map(totals -> row(totals.getDay().toString(), null, totals.getOrders(), totals.getUnits(), totals.getRevenue()))
+                    .collect(Collectors.toList());
+            case "category" -> keyRows(SalesRollup.Dimension.CATEGORY, start, end, limit);
+            case "book" -> withBookTitles(keyRows(SalesRollup.Dimension.BOOK, start, end, limit));
+            default -> throw new IllegalArgumentException("groupBy must be one of: day, book, category");
+        };
+
+        return SalesReportDTO.builder()
+                .groupBy(groupBy.toLowerCase(Locale.ROOT))
+                .from(start)
+                .to(end)
+                .rows(rows)
+                .totalRevenue(rows.stream().map(SalesReportRowDTO::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .build();
+    }
+
+    @Override
+    public RebuildResultDTO rebuildRollups() {
+        long startedAt = System.currentTimeMillis();
+        int rows = salesRollupRepository.rebuildFromOrders();
+        long duration = System.currentTimeMillis() - startedAt;
+        log.info("Sales rollups rebuilt: {} rows in {} ms", rows, duration);
+        return RebuildResultDTO.builder()
+                .rows(rows)
+                .durationMillis(duration)
+                .build();
+    }
+
+    // Backfill for databases that have order history from before the rollups existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildRollups();
+        }
+    }
+
+    private List<SalesReportRowDTO> keyRows(SalesRollup.Dimension dimension, LocalDate start, LocalDate end, int limit) {
+        return salesRollupRepository.sumByKey(dimension, start, end, PageRequest.of(0, limit)).stream()
+                .map(totals -> row(totals.getDimensionKey(), null, totals.getOrders(), totals.getUnits(), totals.getRevenue()))
+                .collect(Collectors.toList());
+    }
+
+    private List<SalesReportRowDTO> withBookTitles(List<SalesReportRowDTO> rows) {
+        List<Long> bookIds = rows.stream().map(row -> Long.valueOf(row.getKey())).collect(Collectors.toList());
+        Map<Long, String> titles = bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Book::getTitle));
+        rows.forEach(row -> row.setLabel(titles.get(Long.valueOf(row.getKey()))));
+        return rows;
+    }
+
+    private static void addLine(Map<SalesRollup.Key, SalesRollup> deltas, LocalDate day, SalesRollup.Dimension dimension,
+                                String key, int shard, int quantity, BigDecimal revenue) {
+        SalesRollup.Key rollupKey = new SalesRollup.Key(day, dimension, key, shard);
+        SalesRollup delta = deltas.computeIfAbsent(rollupKey, k -> SalesRollup.builder()
+                .bucketDay(day)
+                .dimension(dimension)
+                .dimensionKey(key)
+                .shard(shard)
+                .orderCount(1L)
+                .units(0L)
+                .revenue(BigDecimal.ZERO)
+                .build());
+        delta.setUnits(delta.getUnits() + quantity);
+        delta.setRevenue(delta.getRevenue().add(revenue));
+    }
+
+    private static SalesRollup sum(SalesRollup a, SalesRollup b) {
+        a.setOrderCount(a.getOrderCount() + b.getOrderCount());
+        a.setUnits(a.getUnits() + b.getUnits());
+        a.setRevenue(a.getRevenue().add(b.getRevenue()));
+        return a;
+    }
+
+    private static SalesReportRowDTO row(String key, String label, Long orders, Long units, BigDecimal revenue) {
+        return SalesReportRowDTO.builder()
+                .key(key)
+                .label(label)
+                .orders(orders)
+                .units(units)
+                .revenue(revenue)
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.model.Book;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface StockAlertService {
+
+    // Server-Sent Events stream of the books whose stock crosses the threshold
+    // ("low-stock" when it drops below it, "restocked" when it gets back to it or above)
+    SseEmitter subscribe(int threshold);
+
+    // Called by the stock-changing paths; subscribers are notified once the transaction commits
+    void stockChanged(Book book, int previousStock, int newStock);
+}
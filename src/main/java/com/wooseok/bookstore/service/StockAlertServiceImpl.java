@@ -0,0 +1,219 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.StockAlertDTO;
+import com.wooseok.bookstore.model.Book;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes low-stock threshold crossings to SSE subscribers. Subscribers are indexed by threshold,
+// so a stock change only visits the thresholds between its old and new value. An idle subscriber
+// is an async servlet request and a small buffer, with no thread. Alerts are written by a virtual
+// thread per subscriber that exists only while its buffer has something in it. When a client
+// reads slower than alerts arrive, the buffer (bookstore.stock-alerts.buffer-size) drops the
+// oldest alerts and the client gets a "dropped" event with the count, so it can re-read
+// GET /api/books/low-stock.
+@Slf4j
+@Service
+public class StockAlertServiceImpl implements StockAlertService {
+
+    private static final Object HEARTBEAT = new Object();
+
+    @Value("${bookstore.stock-alerts.buffer-size:64}")
+    private int bufferSize;
+
+    private final NavigableMap<Integer, Set<Subscriber>> subscribersByThreshold = new ConcurrentSkipListMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Override
+    public SseEmitter subscribe(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1");
+        }
+
+        // No timeout: dead connections are found by the heartbeat
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, threshold, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+
+        subscribersByThreshold.compute(threshold, (t, subscribers) -> {
+            Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        subscriberCount.incrementAndGet();
+
+        // Sent with the response headers, so the client sees the stream open right away
+        try {
+            emitter.send(SseEmitter.event().comment("subscribed threshold=" + threshold));
+        } catch (IOException ex) {
+            remove(subscriber);
+        }
+        return emitter;
+    }
+
+    @Override
+    public void stockChanged(Book book, int previousStock, int newStock) {
+        if (previousStock == newStock || subscriberCount.get() == 0) {
+            return;
+        }
+        Long bookId = book.getId();
+        String title = book.getTitle();
+        String category = book.getCategory();
+        afterCommit(() -> publish(bookId, title, category, previousStock, newStock));
+    }
+
+    // Keeps idle connections alive through proxies and detects clients that went away
+    @Scheduled(fixedDelayString = "${bookstore.stock-alerts.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        subscribersByThreshold.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribersByThreshold.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    // Low: previous >= threshold > new. Restocked: previous < threshold <= new.
+    private void publish(Long bookId, String title, String category, int previousStock, int newStock) {
+        boolean dropped = newStock < previousStock;
+        Map<Integer, Set<Subscriber>> crossed = dropped
+                ? subscribersByThreshold.subMap(newStock, false, previousStock, true)
+                : subscribersByThreshold.subMap(previousStock, false, newStock, true);
+        if (crossed.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String eventName = dropped ? "low-stock" : "restocked";
+        crossed.forEach((threshold, subscribers) -> {
+            StockAlertDTO alert = StockAlertDTO.builder()
+                    .bookId(bookId)
+                    .title(title)
+                    .category(category)
+                    .threshold(threshold)
+                    .previousStock(previousStock)
+                    .stockQuantity(newStock)
+                    .changedAt(now)
+                    .build();
+            Alert event = new Alert(eventName, alert);
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        });
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribersByThreshold.computeIfPresent(subscriber.threshold, (t, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Alert(String name, StockAlertDTO data) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final int threshold;
+        private final ArrayBlockingQueue<Object> buffer;
+        private final AtomicInteger dropped = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int threshold, ArrayBlockingQueue<Object> buffer) {
+            this.emitter = emitter;
+            this.threshold = threshold;
+            this.buffer = buffer;
+        }
+
+        // Never blocks the committing thread: a full buffer gives up its oldest alert
+        void offer(Alert alert) {
+            while (!buffer.offer(alert)) {
+                if (buffer.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            if (buffer.isEmpty() && buffer.offer(HEARTBEAT)) {
+                scheduleDrain();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // Blocks on the socket when the client is slow; alerts meanwhile pile up in the buffer
+        private void drain() {
+            try {
+                Object next;
+                while ((next = buffer.poll()) != null) {
+                    int lost = dropped.getAndSet(0);
+                    if (lost > 0) {
+                        emitter.send(SseEmitter.event().name("dropped").data(lost));
+                    }
+                    if (next == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        Alert alert = (Alert) next;
+                        emitter.send(SseEmitter.event().name(alert.name()).data(alert.data()));
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // Client disconnected or the emitter already completed
+                remove(this);
+                buffer.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An alert may have arrived after the last poll but before the flag was cleared
+            if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
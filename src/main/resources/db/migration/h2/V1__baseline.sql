@@ -0,0 +1,63 @@
+-- Baseline schema for the embedded H2 database of the local profile (PostgreSQL mode). Same tables
+-- as db/migration/postgresql; a local database created by an older version can simply be deleted
+-- (target/bookstore-db*).
+
+CREATE SEQUENCE IF NOT EXISTS books_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS customers_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS books (
+    id             BIGINT         NOT NULL PRIMARY KEY,
+    title          VARCHAR(200)   NOT NULL,
+    author         VARCHAR(100)   NOT NULL,
+    isbn           VARCHAR(20)    NOT NULL,
+    price          NUMERIC(10, 2) NOT NULL,
+    stock_quantity INTEGER        NOT NULL,
+    description    VARCHAR(1000),
+    category       VARCHAR(50)    NOT NULL,
+    created_at     TIMESTAMP(6)   NOT NULL,
+    updated_at     TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
+
+CREATE TABLE IF NOT EXISTS customers (
+    id           BIGINT       NOT NULL PRIMARY KEY,
+    first_name   VARCHAR(50)  NOT NULL,
+    last_name    VARCHAR(50)  NOT NULL,
+    email        VARCHAR(100) NOT NULL,
+    phone_number VARCHAR(20)  NOT NULL,
+    address      VARCHAR(200),
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_customers_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id               BIGINT         NOT NULL PRIMARY KEY,
+    customer_id      BIGINT         NOT NULL REFERENCES customers (id),
+    total_amount     NUMERIC(10, 2) NOT NULL,
+    status           VARCHAR(20)    NOT NULL
+        CHECK (status IN ('PENDING', 'CONFIRMED', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    shipping_address VARCHAR(200),
+    order_date       TIMESTAMP(6)   NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id       BIGINT         NOT NULL PRIMARY KEY,
+    order_id BIGINT         NOT NULL REFERENCES orders (id),
+    book_id  BIGINT         NOT NULL REFERENCES books (id),
+    quantity INTEGER        NOT NULL,
+    price    NUMERIC(10, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS sales_rollups (
+    bucket_day    DATE           NOT NULL,
+    dimension     VARCHAR(20)    NOT NULL CHECK (dimension IN ('BOOK', 'CATEGORY', 'TOTAL')),
+    dimension_key VARCHAR(100)   NOT NULL,
+    shard         INTEGER        NOT NULL,
+    order_count   BIGINT         NOT NULL,
+    units         BIGINT         NOT NULL,
+    revenue       NUMERIC(14, 2) NOT NULL,
+    PRIMARY KEY (bucket_day, dimension, dimension_key, shard)
+);
@@ -0,0 +1,7 @@
+-- Journal of the async order pipeline (bookstore.orders.mode=async): orders accepted but not yet
+-- confirmed or cancelled. Entries are deleted with the transaction that processes the order.
+CREATE TABLE IF NOT EXISTS pending_orders (
+    order_id      BIGINT       NOT NULL PRIMARY KEY REFERENCES orders (id) ON DELETE CASCADE,
+    partition_key BIGINT       NOT NULL,
+    accepted_at   TIMESTAMP(6) NOT NULL
+);
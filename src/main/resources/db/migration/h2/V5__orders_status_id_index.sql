@@ -0,0 +1,4 @@
+-- Bulk status transitions page through one status by id (findTransitionableIdsAfter), so the status
+-- index gets id as its second column; it still serves findByStatus.
+CREATE INDEX IF NOT EXISTS idx_orders_status_id ON orders (status, id);
+DROP INDEX IF EXISTS idx_orders_status;
@@ -0,0 +1,34 @@
+-- B-tree indexes for the predicates and sort orders the repositories issue. Primary keys and the
+-- isbn/email unique constraints already have theirs.
+-- Built CONCURRENTLY, so upgrading a loaded database does not block writes to its tables. That cannot
+-- run in a transaction, hence executeInTransaction=false in V2__query_indexes.sql.conf. A build that
+-- fails leaves an INVALID index, which IF NOT EXISTS would then skip: drop it before the retry.
+
+-- findByCategoryAndIdGreaterThanOrderByIdAsc (keyset pages by category), findByCategory
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_category_id ON books (category, id);
+-- findByAuthor
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_author ON books (author);
+-- findByPriceBetween[AndIdGreaterThanOrderByIdAsc]
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_price ON books (price);
+-- findByStockQuantityLessThan[AndIdGreaterThanOrderByIdAsc]
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_stock_quantity ON books (stock_quantity);
+-- MAX(updated_at) in the listing ETags (findCollectionVersion)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_updated_at ON books (updated_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_updated_at ON customers (updated_at);
+
+-- findIdsByCustomerIdAfter (keyset pages per customer), findByCustomerId, the customer FK
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_customer_id_id ON orders (customer_id, id);
+-- findByCustomerIdOrderByOrderDateDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_customer_id_order_date ON orders (customer_id, order_date DESC);
+-- findByStatus
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status ON orders (status);
+-- Order history by date: bestseller replay (streamSoldLines)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_order_date ON orders (order_date);
+
+-- Item loads per order (findByOrderId, findByOrderIdInWithBook, @BatchSize fetches) and per book
+-- (findByBookId, the book FK checked on delete)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_book_id ON order_items (book_id);
+
+-- sumByKey / sumByDay: one dimension over a day range
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sales_rollups_dimension_day ON sales_rollups (dimension, bucket_day);
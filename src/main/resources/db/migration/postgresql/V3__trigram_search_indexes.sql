@@ -0,0 +1,27 @@
+-- Trigram GIN indexes for findByTitleContainingIgnoreCase / findByAuthorContainingIgnoreCase, the
+-- SQL fallback when the in-memory search index is disabled. Spring Data renders these as
+-- upper(column) LIKE upper(?), so the indexes are on upper(column).
+-- They need the pg_trgm extension (in contrib). Creating it takes the CREATE privilege on the
+-- database (PostgreSQL 13+, where pg_trgm is trusted) or a superuser. Without the extension, or
+-- without the right to create it, the migration only logs a warning: searches still work, as
+-- sequential scans. A DBA can then run the CREATE EXTENSION and the two CREATE INDEX statements
+-- below by hand.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        IF NOT EXISTS (SELECT 1 FROM pg_available_extensions WHERE name = 'pg_trgm') THEN
+            RAISE WARNING 'pg_trgm is not installed on this server, title and author searches are not indexed';
+            RETURN;
+        END IF;
+        BEGIN
+            CREATE EXTENSION pg_trgm;
+        EXCEPTION WHEN insufficient_privilege THEN
+            RAISE WARNING 'No privilege to create the pg_trgm extension, title and author searches are not indexed';
+            RETURN;
+        END;
+    END IF;
+
+    CREATE INDEX IF NOT EXISTS idx_books_title_trgm ON books USING gin (upper(title) gin_trgm_ops);
+    CREATE INDEX IF NOT EXISTS idx_books_author_trgm ON books USING gin (upper(author) gin_trgm_ops);
+END
+$$;
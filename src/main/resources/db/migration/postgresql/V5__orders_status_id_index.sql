@@ -0,0 +1,5 @@
+-- Bulk status transitions page through one status by id (findTransitionableIdsAfter), so the status
+-- index gets id as its second column; it still serves findByStatus. Built and dropped concurrently,
+-- outside a transaction (V5__orders_status_id_index.sql.conf), so orders keep being written meanwhile.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status_id ON orders (status, id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_orders_status;
@@ -0,0 +1,71 @@
+package com.wooseok.bookstore.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram (microseconds) and status counts for one endpoint
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+
+    void record(int status, long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        statusCounts.computeIfAbsent(status, code -> new LongAdder()).increment();
+    }
+
+    // The request never got a response (connection refused, timeout)
+    void recordFailure(long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        failures.increment();
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    long errors() {
+        long errors = failures.sum();
+        for (Map.Entry<Integer, LongAdder> entry : statusCounts.entrySet()) {
+            if (entry.getKey() >= 400) {
+                errors += entry.getValue().sum();
+            }
+        }
+        return errors;
+    }
+
+    Map<String, Object> toReport(double durationSeconds) {
+        Map<String, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+        if (failures.sum() > 0) {
+            statuses.put("failed", failures.sum());
+        }
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("min", latencies.getMinValue());
+        latency.put("mean", Math.round(latencies.getMean()));
+        latency.put("p50", latencies.getValueAtPercentile(50));
+        latency.put("p90", latencies.getValueAtPercentile(90));
+        latency.put("p99", latencies.getValueAtPercentile(99));
+        latency.put("p99_9", latencies.getValueAtPercentile(99.9));
+        latency.put("max", latencies.getMaxValue());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", count());
+        report.put("errors", errors());
+        report.put("throughputPerSecond", Math.round(count() / durationSeconds * 10) / 10.0);
+        report.put("statusCodes", statuses);
+        report.put("latencyMicros", latency);
+        return report;
+    }
+}
@@ -0,0 +1,280 @@
+package com.wooseok.bookstore.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wooseok.bookstore.BookstoreApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Boots the application in-process (against the embedded "local" database by default) and drives
+// it over HTTP with a weighted workload mix, then writes per-endpoint latency histograms as JSON.
+//
+//   --mode=closed|open       closed: --concurrency workers, each waiting for its response
+//                            open: --rate requests/s on a fixed schedule; latency is measured from the
+//                            scheduled send time, so a stalled server is not hidden (coordinated omission)
+//   --duration=60 --warmup=10             seconds; warmup results are discarded
+//   --mix=browse=40,search=25,order=10,history=25
+//   --report=target/load-report.json
+//   --base-url=http://host:8080           drive a running server instead of booting one
+//   --seed-data                           run the dataset generator before the test
+//   --profiles=local                      profiles for the booted application
+//
+// Any other --option is passed to the application, e.g. --spring.threads.virtual.enabled=true.
+public class LoadHarness {
+
+    private static final int MAX_DISCOVERED_ROWS = 10_000;
+
+    private static final List<String> HARNESS_OPTIONS = List.of(
+            "mode", "rate", "concurrency", "duration", "warmup", "mix", "report", "base-url",
+            "seed-data", "profiles", "random-seed", "max-in-flight");
+
+    private final Map<String, String> options;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private HttpClient client;
+    private Workload workload;
+    private volatile boolean recording;
+
+    LoadHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (HARNESS_OPTIONS.contains(pair[0])) {
+                options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            context = bootApplication(options, applicationArgs);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            new LoadHarness(options).run(URI.create(baseUrl));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext bootApplication(Map<String, String> options, List<String> args) {
+        List<String> profiles = new ArrayList<>(List.of(options.getOrDefault("profiles", "local").split(",")));
+        List<String> applicationArgs = new ArrayList<>(args);
+        applicationArgs.add(0, "--server.port=0");
+        if (options.containsKey("seed-data")) {
+            profiles.add("seed");
+            applicationArgs.add("--bookstore.seed.exit-when-done=false");
+        }
+
+        SpringApplication application = new SpringApplication(BookstoreApplication.class);
+        application.setAdditionalProfiles(profiles.stream().filter(p -> !p.isBlank()).toArray(String[]::new));
+        return application.run(applicationArgs.toArray(String[]::new));
+    }
+
+    void run(URI baseUri) throws Exception {
+        String mode = options.getOrDefault("mode", "closed");
+        int warmupSeconds = intOption("warmup", 10);
+        int durationSeconds = intOption("duration", 60);
+        SplittableRandom random = new SplittableRandom(Long.parseLong(options.getOrDefault("random-seed", "42")));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+
+            workload = new Workload(baseUri, Workload.parseMix(
+                    options.getOrDefault("mix", "browse=40,search=25,order=10,history=25")));
+            workload.discover(client, objectMapper, MAX_DISCOVERED_ROWS);
+            System.out.printf("Discovered %d books and %d customers%n",
+                    workload.discoveredBooks(), workload.discoveredCustomers());
+
+            Instant startedAt = Instant.now();
+            if (mode.equals("open")) {
+                int rate = intOption("rate", 200);
+                runOpen(executor, random, rate, warmupSeconds, false);
+                runOpen(executor, random, rate, durationSeconds, true);
+            } else if (mode.equals("closed")) {
+                int concurrency = intOption("concurrency", 64);
+                runClosed(executor, random, concurrency, warmupSeconds, false);
+                runClosed(executor, random, concurrency, durationSeconds, true);
+            } else {
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+
+            writeReport(mode, startedAt, durationSeconds);
+        }
+    }
+
+    // Open model: requests are sent on a fixed schedule whether or not earlier ones have returned
+    private void runOpen(ExecutorService executor, SplittableRandom random, int rate, int seconds, boolean record)
+            throws InterruptedException {
+        recording = record;
+        int maxInFlight = intOption("max-in-flight", 10_000);
+        AtomicInteger inFlight = new AtomicInteger();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (long n = 0; ; n++) {
+            long intendedStart = start + n * interval;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            if (inFlight.get() >= maxInFlight) {
+                if (record) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            Workload.Call call = workload.next(random);
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    send(call, intendedStart);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Closed model: a fixed number of workers, each sending its next request when the last one returns
+    private void runClosed(ExecutorService executor, SplittableRandom random, int concurrency, int seconds, boolean record)
+            throws InterruptedException {
+        recording = record;
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            SplittableRandom workerRandom = random.split();
+            workers.add(executor.submit(() -> {
+                while (System.nanoTime() < end) {
+                    send(workload.next(workerRandom), System.nanoTime());
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Load worker failed", ex.getCause());
+            }
+        }
+    }
+
+    private void send(Workload.Call call, long startNanos) {
+        try {
+            HttpResponse<Void> response = client.send(call.request(), HttpResponse.BodyHandlers.discarding());
+            if (recording) {
+                stats(call.endpoint()).record(response.statusCode(), System.nanoTime() - startNanos);
+            }
+        } catch (IOException ex) {
+            if (recording) {
+                stats(call.endpoint()).recordFailure(System.nanoTime() - startNanos);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private EndpointStats stats(String endpoint) {
+        return stats.computeIfAbsent(endpoint, name -> new EndpointStats());
+    }
+
+    private void writeReport(String mode, Instant startedAt, int durationSeconds) throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>(options);
+        config.put("mode", mode);
+
+        Map<String, Object> endpoints = new TreeMap<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            endpoints.put(entry.getKey(), entry.getValue().toReport(durationSeconds));
+            requests += entry.getValue().count();
+            errors += entry.getValue().errors();
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("requests", requests);
+        totals.put("errors", errors);
+        totals.put("dropped", dropped.sum());
+        totals.put("throughputPerSecond", Math.round((double) requests / durationSeconds * 10) / 10.0);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("durationSeconds", durationSeconds);
+        report.put("config", config);
+        report.put("totals", totals);
+        report.put("endpoints", endpoints);
+
+        Path path = Path.of(options.getOrDefault("report", "target/load-report.json"));
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writeValue(path.toFile(), report);
+
+        System.out.printf("%n%-22s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 us", "p99 us", "max us");
+        endpoints.forEach((endpoint, value) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> endpointReport = (Map<String, Object>) value;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> latency = (Map<String, Object>) endpointReport.get("latencyMicros");
+            System.out.printf("%-22s %10s %8s %10s %10s %10s %10s%n", endpoint,
+                    endpointReport.get("requests"), endpointReport.get("errors"),
+                    endpointReport.get("throughputPerSecond"),
+                    latency.get("p50"), latency.get("p99"), latency.get("max"));
+        });
+        System.out.printf("%nReport written to %s%n", path.toAbsolutePath());
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,202 @@
+package com.wooseok.bookstore.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+// The request mix: catalog browse, search, order placement and customer history, weighted by the
+// --mix option. Ids, categories and search terms are sampled from rows discovered through the API.
+class Workload {
+
+    enum Scenario { BROWSE, SEARCH, ORDER, HISTORY }
+
+    record Call(String endpoint, HttpRequest request) {
+    }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DISCOVERY_PAGE_SIZE = 500;
+
+    private final URI baseUri;
+    private final Map<Scenario, Integer> weights;
+    private final int totalWeight;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> customerIds = new ArrayList<>();
+    private final List<String> categories = new ArrayList<>();
+    private final List<String> titleTerms = new ArrayList<>();
+    private final List<String> authorTerms = new ArrayList<>();
+
+    Workload(URI baseUri, Map<Scenario, Integer> weights) {
+        this.baseUri = baseUri;
+        this.weights = weights;
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Workload mix needs at least one positive weight");
+        }
+    }
+
+    // Parses "browse=40,search=25,order=10,history=25"
+    static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            weights.put(Scenario.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    // Walks the book and customer listings to collect up to maxRows ids of each
+    void discover(HttpClient client, ObjectMapper objectMapper, int maxRows) throws IOException, InterruptedException {
+        Set<String> categorySet = new LinkedHashSet<>();
+        Set<String> titleSet = new LinkedHashSet<>();
+        Set<String> authorSet = new LinkedHashSet<>();
+
+        Long after = null;
+        do {
+            JsonNode page = getJson(client, objectMapper, "/api/books?limit=" + DISCOVERY_PAGE_SIZE + cursor(after));
+            for (JsonNode book : page.get("items")) {
+                bookIds.add(book.get("id").asLong());
+                categorySet.add(book.get("category").asText());
+                addTerms(titleSet, book.get("title").asText());
+                addTerms(authorSet, book.get("author").asText());
+            }
+            after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asLong();
+        } while (after != null && bookIds.size() < maxRows);
+
+        after = null;
+        do {
+            JsonNode page = getJson(client, objectMapper, "/api/customers?limit=" + DISCOVERY_PAGE_SIZE + cursor(after));
+            for (JsonNode customer : page.get("items")) {
+                customerIds.add(customer.get("id").asLong());
+            }
+            after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asLong();
+        } while (after != null && customerIds.size() < maxRows);
+
+        if (bookIds.isEmpty() || customerIds.isEmpty()) {
+            throw new IllegalStateException("No books or customers found; seed the database first (--seed-data)");
+        }
+        categories.addAll(categorySet);
+        titleTerms.addAll(titleSet);
+        authorTerms.addAll(authorSet);
+    }
+
+    int discoveredBooks() {
+        return bookIds.size();
+    }
+
+    int discoveredCustomers() {
+        return customerIds.size();
+    }
+
+    Call next(SplittableRandom random) {
+        return switch (scenario(random)) {
+            case BROWSE -> browse(random);
+            case SEARCH -> search(random);
+            case ORDER -> order(random);
+            case HISTORY -> get("orders.customer",
+                    "/api/orders/customer/" + pick(customerIds, random) + "?limit=20");
+        };
+    }
+
+    private Call browse(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 50) {
+            return get("books.get", "/api/books/" + pick(bookIds, random));
+        }
+        if (roll < 75) {
+            return get("books.page", "/api/books?limit=50&after=" + (pick(bookIds, random) - 1));
+        }
+        return get("books.category", "/api/books/category/" + encode(pick(categories, random)) + "?limit=50");
+    }
+
+    private Call search(SplittableRandom random) {
+        if (random.nextInt(100) < 60) {
+            return get("books.search.title", "/api/books/search/title/" + encode(pick(titleTerms, random)) + "?limit=20");
+        }
+        return get("books.search.author", "/api/books/search/author/" + encode(pick(authorTerms, random)) + "?limit=20");
+    }
+
+    private Call order(SplittableRandom random) {
+        StringBuilder body = new StringBuilder("{\"customerId\":").append(pick(customerIds, random)).append(",\"items\":[");
+        int items = random.nextInt(1, 4);
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"bookId\":").append(pick(bookIds, random)).append(",\"quantity\":1}");
+        }
+        body.append("]}");
+
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/orders"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return new Call("orders.create", request);
+    }
+
+    private Scenario scenario(SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Scenario, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private Call get(String endpoint, String path) {
+        return new Call(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build());
+    }
+
+    private JsonNode getJson(HttpClient client, ObjectMapper objectMapper, String path)
+            throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static void addTerms(Set<String> terms, String text) {
+        for (String word : text.split("\\s+")) {
+            if (word.length() >= 3) {
+                terms.add(word.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private static String cursor(Long after) {
+        return after == null ? "" : "&after=" + after;
+    }
+
+    private static <T> T pick(List<T> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
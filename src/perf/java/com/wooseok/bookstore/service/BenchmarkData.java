@@ -0,0 +1,126 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.model.Customer;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+// Deterministic in-memory entities shaped like production rows, for the JMH benchmarks
+final class BenchmarkData {
+
+    private static final String[] WORDS = {
+            "river", "silent", "garden", "empire", "winter", "glass", "northern", "letters",
+            "machine", "harbor", "shadow", "orchard", "distant", "crown", "paper", "storm"
+    };
+    private static final String[] CATEGORIES = {
+            "Fiction", "Mystery", "Science", "History", "Biography", "Fantasy", "Romance", "Travel",
+            "Poetry", "Business", "Children", "Cooking", "Art", "Philosophy", "Health", "Technology"
+    };
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+    private final SplittableRandom random;
+
+    BenchmarkData(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    List<Book> books(int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            books.add(Book.builder()
+                    .id((long) i)
+                    .title(capitalize(word()) + " of the " + capitalize(word()) + " " + capitalize(word()))
+                    .author(capitalize(word()) + " " + capitalize(word()))
+                    .isbn(String.format("978%010d", i))
+                    .price(BigDecimal.valueOf(random.nextLong(499, 8000), 2))
+                    .stockQuantity(random.nextInt(0, 500))
+                    .description(sentence(40))
+                    .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .createdAt(NOW)
+                    .updatedAt(NOW)
+                    .build());
+        }
+        return books;
+    }
+
+    List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            customers.add(Customer.builder()
+                    .id((long) i)
+                    .firstName(capitalize(word()))
+                    .lastName(capitalize(word()))
+                    .email("customer" + i + "@example.com")
+                    .phoneNumber(String.format("+1 (555) %03d-%04d", random.nextInt(1000), random.nextInt(10000)))
+                    .address(random.nextInt(1, 9999) + " " + capitalize(word()) + " Street, Springfield")
+                    .createdAt(NOW)
+                    .updatedAt(NOW)
+                    .build());
+        }
+        return customers;
+    }
+
+    List<Order> orders(int count, int itemsPerOrder, List<Book> books, List<Customer> customers) {
+        List<Order> orders = new ArrayList<>(count);
+        long itemId = 1;
+        for (int i = 1; i <= count; i++) {
+            Order order = new Order();
+            order.setId((long) i);
+            order.setCustomer(customers.get(random.nextInt(customers.size())));
+            order.setStatus(Order.OrderStatus.PENDING);
+            order.setOrderDate(NOW);
+
+            List<OrderItem> items = new ArrayList<>(itemsPerOrder);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                Book book = books.get(random.nextInt(books.size()));
+                items.add(OrderItem.builder()
+                        .id(itemId++)
+                        .order(order)
+                        .book(book)
+                        .quantity(random.nextInt(1, 5))
+                        .price(book.getPrice())
+                        .build());
+            }
+            order.setOrderItems(items);
+            order.setTotalAmount(OrderServiceImpl.calculateTotal(items));
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    // Services with only what the mapping code touches; nothing here reaches a repository
+    static BookServiceImpl bookService() {
+        return new BookServiceImpl(null, new DatabaseInventoryService(null), Optional.empty(), null, null, null);
+    }
+
+    static CustomerServiceImpl customerService() {
+        return new CustomerServiceImpl(null, null, null, null, null, Optional.empty());
+    }
+
+    static OrderServiceImpl orderService() {
+        return new OrderServiceImpl(null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private String sentence(int words) {
+        StringBuilder sentence = new StringBuilder(capitalize(word()));
+        for (int i = 1; i < words; i++) {
+            sentence.append(' ').append(word());
+        }
+        return sentence.append('.').toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
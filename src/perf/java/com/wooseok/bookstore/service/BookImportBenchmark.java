@@ -0,0 +1,167 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.BookstoreApplication;
+import com.wooseok.bookstore.dto.BookImportResultDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// BookImportService.importBooks end to end (parsing, validation, ISBN lookups, batched upserts,
+// search index updates) on generated feeds of 100,000 and 1,000,000 rows, against an in-memory H2
+// database in PostgreSQL mode. "insert" loads an empty catalog; "update" re-imports the same ISBNs
+// over a loaded one. The feed is generated as it is read, so it is never held in memory.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BookImportBenchmark {
+
+    @Param({"100000", "1000000"})
+    int rows;
+
+    @Param({"csv", "ndjson"})
+    String format;
+
+    @Param({"insert", "update"})
+    String mode;
+
+    private ConfigurableApplicationContext context;
+    private BookImportService importService;
+    private ImportFormat feedFormat;
+
+    @Setup
+    public void setup() throws IOException {
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("local")
+                .run("--spring.datasource.url=jdbc:h2:mem:import;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN");
+        importService = context.getBean(BookImportService.class);
+        feedFormat = ImportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        if (mode.equals("update")) {
+            importFeed();
+        }
+    }
+
+    // Empties the catalog again, and the search index with it
+    @TearDown(Level.Iteration)
+    public void resetCatalog() {
+        if (mode.equals("insert")) {
+            context.getBean(JdbcTemplate.class).update("DELETE FROM books");
+            context.getBeanProvider(BookSearchIndex.class).ifAvailable(BookSearchIndex::build);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookImportResultDTO importFeed() throws IOException {
+        BookImportResultDTO result = importService.importBooks(new GeneratedFeed(rows, feedFormat), feedFormat, null);
+        // A run that skipped rows measured the wrong thing
+        if (!result.isCompleted() || result.getFailed() > 0) {
+            throw new IllegalStateException("Import did not load every row: " + result.getError()
+                    + ", " + result.getFailed() + " failed");
+        }
+        return result;
+    }
+
+    // Catalog rows generated a thousand at a time as the importer reads them
+    private static final class GeneratedFeed extends InputStream {
+        private static final int ROWS_PER_REFILL = 1_000;
+        private static final String DESCRIPTION = "A generated book, with a comma in its description";
+
+        private final int rows;
+        private final boolean csv;
+        private final StringBuilder text = new StringBuilder();
+        private byte[] bytes = new byte[0];
+        private int position;
+        private int next;
+
+        private GeneratedFeed(int rows, ImportFormat format) {
+            this.rows = rows;
+            this.csv = format == ImportFormat.CSV;
+        }
+
+        @Override
+        public int read() {
+            if (position == bytes.length && !refill()) {
+                return -1;
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position == bytes.length && !refill()) {
+                return -1;
+            }
+            int count = Math.min(length, bytes.length - position);
+            System.arraycopy(bytes, position, target, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean refill() {
+            if (next == rows) {
+                return false;
+            }
+            text.setLength(0);
+            if (next == 0 && csv) {
+                text.append("title,author,isbn,price,stock_quantity,category,description\n");
+            }
+            int end = Math.min(next + ROWS_PER_REFILL, rows);
+            for (; next < end; next++) {
+                String isbn = Long.toString(9_781_000_000_000L + next);
+                String price = (next % 5_000 + 1) + ".99";
+                if (csv) {
+                    text.append("Imported Book ").append(next).append(',')
+                            .append("Author ").append(next % 5_000).append(',')
+                            .append(isbn).append(',')
+                            .append(price).append(',')
+                            .append(next % 100).append(',')
+                            .append("Category ").append(next % 40).append(',')
+                            .append('"').append(DESCRIPTION).append("\"\n");
+                } else {
+                    text.append("{\"title\":\"Imported Book ").append(next)
+                            .append("\",\"author\":\"Author ").append(next % 5_000)
+                            .append("\",\"isbn\":\"").append(isbn)
+                            .append("\",\"price\":").append(price)
+                            .append(",\"stockQuantity\":").append(next % 100)
+                            .append(",\"category\":\"Category ").append(next % 40)
+                            .append("\",\"description\":\"").append(DESCRIPTION).append("\"}\n");
+                }
+            }
+            bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.BookstoreApplication;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// BookService.findBooksByTitle over a catalog of 1,000,000 generated books in an in-memory H2
+// database (PostgreSQL mode), answered by the trigram index ("index") or by the SQL LIKE query it
+// replaces ("like", bookstore.search.index.enabled=false). Author searches take the same two paths.
+// The queries match about one title in six, about one in 250, and none, where LIKE scans the table.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BookSearchBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final int BOOKS_PER_BATCH = 10_000;
+    private static final int LIMIT = 50;
+
+    @Param({"index", "like"})
+    String path;
+
+    @Param({"harbor", "storm paper", "quartz"})
+    String query;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+
+    @Setup
+    public void setup() {
+        boolean indexed = path.equals("index");
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("local")
+                .run("--spring.datasource.url=jdbc:h2:mem:search;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--bookstore.search.index.enabled=" + indexed,
+                        "--logging.level.root=WARN");
+        bookService = context.getBean(BookService.class);
+        loadBooks(context.getBean(JdbcTemplate.class));
+        if (indexed) {
+            // Built at startup over the empty catalog
+            context.getBean(BookSearchIndex.class).build();
+        }
+        System.out.printf("%n%s '%s': %d of %d books%n", path, query, search().size(), LIMIT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDTO> search() {
+        return bookService.findBooksByTitle(query, LIMIT);
+    }
+
+    private static void loadBooks(JdbcTemplate jdbcTemplate) {
+        BenchmarkData data = new BenchmarkData(42);
+        for (int first = 0; first < BOOKS; first += BOOKS_PER_BATCH) {
+            long offset = first;
+            List<Object[]> rows = data.books(BOOKS_PER_BATCH).stream()
+                    .map(book -> row(book, offset + book.getId()))
+                    .collect(Collectors.toList());
+            jdbcTemplate.batchUpdate("INSERT INTO books (id, title, author, isbn, price, stock_quantity, "
+                    + "description, category, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private static Object[] row(Book book, long id) {
+        Timestamp now = Timestamp.valueOf(book.getCreatedAt());
+        return new Object[]{id, book.getTitle(), book.getAuthor(), String.format("978%010d", id), book.getPrice(),
+                book.getStockQuantity(), book.getDescription(), book.getCategory(), now, now};
+    }
+}
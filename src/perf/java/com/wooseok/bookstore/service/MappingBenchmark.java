@@ -0,0 +1,95 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.model.Customer;
+import com.wooseok.bookstore.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity <-> DTO mapping in the service layer, for one page (50) and one unpaged listing (1000)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({"50", "1000"})
+    int size;
+
+    private BookServiceImpl bookService;
+    private CustomerServiceImpl customerService;
+    private OrderServiceImpl orderService;
+
+    private List<Book> books;
+    private List<BookDTO> bookDTOs;
+    private List<Customer> customers;
+    private List<Order> orders;
+
+    @Setup
+    public void setup() {
+        BenchmarkData data = new BenchmarkData(42);
+        bookService = BenchmarkData.bookService();
+        customerService = BenchmarkData.customerService();
+        orderService = BenchmarkData.orderService();
+
+        books = data.books(size);
+        customers = data.customers(size);
+        orders = data.orders(size, 5, books, customers);
+        bookDTOs = new ArrayList<>(size);
+        books.forEach(book -> bookDTOs.add(bookService.mapToDTO(book)));
+    }
+
+    @Benchmark
+    public List<BookDTO> booksToDTO() {
+        List<BookDTO> result = new ArrayList<>(books.size());
+        for (Book book : books) {
+            result.add(bookService.mapToDTO(book));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Book> bookDTOsToEntity() {
+        List<Book> result = new ArrayList<>(bookDTOs.size());
+        for (BookDTO bookDTO : bookDTOs) {
+            result.add(bookService.mapToEntity(bookDTO));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<CustomerDTO> customersToDTO() {
+        List<CustomerDTO> result = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            result.add(customerService.mapToDTO(customer));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<OrderDTO> ordersToDTO() {
+        List<OrderDTO> result = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            result.add(orderService.mapToDTO(order));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,158 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.BookstoreApplication;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.dto.OrderItemDTO;
+import com.wooseok.bookstore.metrics.ServiceTimingAspect;
+import com.wooseok.bookstore.metrics.SqlStatementCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-call cost of the metrics: a service call through a plain Spring proxy versus one through
+// the timing aspect, and one statement passing the SQL statement counter. createOrder places a
+// 10-line order in the running application (H2 in PostgreSQL mode) with Hibernate statistics
+// (hibernate.generate_statistics, on in application.properties) on and off.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    public interface Lookup {
+        long find(long id);
+    }
+
+    // Lives in the service package, so the aspect's pointcut applies to it as it does to the real services
+    public static class LookupImpl implements Lookup {
+        @Override
+        public long find(long id) {
+            return id * 31;
+        }
+    }
+
+    private Lookup direct;
+    private Lookup plainProxy;
+    private Lookup timedProxy;
+    private SqlStatementCounter statementCounter;
+    private ExecutionInfo execution;
+    private List<QueryInfo> queries;
+    private long id = 42;
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({"true", "false"})
+        String generateStatistics;
+
+        private ConfigurableApplicationContext context;
+        private OrderService orderService;
+        private OrderDTO order;
+
+        @Setup
+        public void setup() {
+            context = new SpringApplicationBuilder(BookstoreApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("local")
+                    .run("--spring.datasource.url=jdbc:h2:mem:metrics;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                            "--spring.jpa.properties.hibernate.generate_statistics=" + generateStatistics,
+                            "--logging.level.root=WARN");
+            orderService = context.getBean(OrderService.class);
+            BookService bookService = context.getBean(BookService.class);
+            Long customerId = context.getBean(CustomerService.class).createCustomer(CustomerDTO.builder()
+                    .firstName("Bench")
+                    .lastName("Mark")
+                    .email("metrics@example.com")
+                    .phoneNumber("555-0100")
+                    .build()).getId();
+
+            List<OrderItemDTO> lines = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                BookDTO book = bookService.createBook(BookDTO.builder()
+                        .title("Metrics Book " + i)
+                        .author("Author " + i)
+                        .isbn(String.format("978%010d", i))
+                        .category("Benchmark")
+                        .price(BigDecimal.valueOf(1999, 2))
+                        .stockQuantity(1_000_000_000)
+                        .build());
+                lines.add(OrderItemDTO.builder().bookId(book.getId()).quantity(1).build());
+            }
+            order = OrderDTO.builder().customerId(customerId).items(lines).build();
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        direct = new LookupImpl();
+
+        ProxyFactory proxyFactory = new ProxyFactory(new LookupImpl());
+        proxyFactory.addInterface(Lookup.class);
+        plainProxy = (Lookup) proxyFactory.getProxy();
+
+        AspectJProxyFactory aspectFactory = new AspectJProxyFactory(new LookupImpl());
+        aspectFactory.addAspect(new ServiceTimingAspect(new SimpleMeterRegistry()));
+        timedProxy = aspectFactory.getProxy();
+
+        statementCounter = new SqlStatementCounter();
+        execution = new ExecutionInfo();
+        queries = List.of(new QueryInfo("select b1_0.id from books b1_0 where b1_0.id=?"));
+    }
+
+    @Benchmark
+    public long direct() {
+        return direct.find(id);
+    }
+
+    @Benchmark
+    public long plainProxy() {
+        return plainProxy.find(id);
+    }
+
+    @Benchmark
+    public long timedProxy() {
+        return timedProxy.find(id);
+    }
+
+    @Benchmark
+    public int statementCounter() {
+        statementCounter.afterQuery(execution, queries);
+        return SqlStatementCounter.current();
+    }
+
+    @Benchmark
+    public OrderDTO createOrder(Application application) {
+        return application.orderService.createOrder(application.order);
+    }
+}
@@ -0,0 +1,138 @@
+package com.wooseok.bookstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wooseok.bookstore.BookstoreApplication;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The same orders placed over HTTP with one POST /api/orders/batch, or with one POST /api/orders
+// each, against an in-memory H2 database in PostgreSQL mode. Orders have 3 lines each; the score is
+// the time to place all of them, so the two benchmarks compare directly at each batch size.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBatchBenchmark {
+
+    private static final int LINES_PER_ORDER = 3;
+    private static final int BOOKS = 20;
+
+    @Param({"10", "100", "1000"})
+    int orders;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI singleUri;
+    private URI batchUri;
+    private List<String> singleBodies;
+    private String batchBody;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .profiles("local")
+                .run("--spring.datasource.url=jdbc:h2:mem:order-batch;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+        BookService bookService = context.getBean(BookService.class);
+        CustomerService customerService = context.getBean(CustomerService.class);
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+        Long customerId = customerService.createCustomer(CustomerDTO.builder()
+                .firstName("Bench")
+                .lastName("Mark")
+                .email("bench@example.com")
+                .phoneNumber("555-0100")
+                .build()).getId();
+        List<Long> bookIds = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            bookIds.add(bookService.createBook(BookDTO.builder()
+                    .title("Benchmark Book " + i)
+                    .author("Author " + i)
+                    .isbn(String.format("978%010d", i))
+                    .category("Benchmark")
+                    .price(BigDecimal.valueOf(1999, 2))
+                    .stockQuantity(1_000_000_000)
+                    .build()).getId());
+        }
+
+        // The request bodies as a client would send them, serialized once
+        List<Map<String, Object>> requests = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            List<Map<String, Object>> items = new ArrayList<>(LINES_PER_ORDER);
+            for (int line = 0; line < LINES_PER_ORDER; line++) {
+                items.add(Map.of("bookId", bookIds.get((i + line) % BOOKS), "quantity", 1));
+            }
+            requests.add(Map.of("customerId", customerId, "items", items));
+        }
+        singleBodies = new ArrayList<>(orders);
+        for (Map<String, Object> request : requests) {
+            singleBodies.add(objectMapper.writeValueAsString(request));
+        }
+        batchBody = objectMapper.writeValueAsString(requests);
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        singleUri = URI.create(baseUrl + "/api/orders");
+        batchUri = URI.create(baseUrl + "/api/orders/batch");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int batch() throws IOException, InterruptedException {
+        return post(batchUri, batchBody);
+    }
+
+    @Benchmark
+    public int loop() throws IOException, InterruptedException {
+        int status = 0;
+        for (String body : singleBodies) {
+            status = post(singleUri, body);
+        }
+        return status;
+    }
+
+    private int post(URI uri, String body) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(uri + " returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,89 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.BookstoreApplication;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.dto.OrderItemDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// OrderService.createOrder end to end (validation, stock reservation, INSERTs, commit) against an
+// in-memory H2 database in PostgreSQL mode, for carts of 1, 10 and 100 lines. The JIT takes about
+// 30 s to settle on a small machine, hence the long warmup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 5)
+@Measurement(iterations = 10, time = 3)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderCreationBenchmark {
+
+    @Param({"1", "10", "100"})
+    int items;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderDTO order;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BookstoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("local")
+                .run("--spring.datasource.url=jdbc:h2:mem:orders;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN");
+        orderService = context.getBean(OrderService.class);
+        BookService bookService = context.getBean(BookService.class);
+        CustomerService customerService = context.getBean(CustomerService.class);
+
+        Long customerId = customerService.createCustomer(CustomerDTO.builder()
+                .firstName("Bench")
+                .lastName("Mark")
+                .email("bench@example.com")
+                .phoneNumber("555-0100")
+                .build()).getId();
+
+        List<OrderItemDTO> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            BookDTO book = bookService.createBook(BookDTO.builder()
+                    .title("Benchmark Book " + i)
+                    .author("Author " + i)
+                    .isbn(String.format("978%010d", i))
+                    .category("Benchmark")
+                    .price(BigDecimal.valueOf(1999, 2))
+                    .stockQuantity(1_000_000_000)
+                    .build());
+            lines.add(OrderItemDTO.builder().bookId(book.getId()).quantity(1).build());
+        }
+        order = OrderDTO.builder().customerId(customerId).items(lines).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO createOrder() {
+        return orderService.createOrder(order);
+    }
+}
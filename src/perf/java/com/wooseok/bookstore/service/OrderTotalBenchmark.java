@@ -0,0 +1,46 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.model.OrderItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// BigDecimal subtotal/total arithmetic used when an order is created
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "5", "50"})
+    int itemsPerOrder;
+
+    private List<OrderItem> orderItems;
+
+    @Setup
+    public void setup() {
+        BenchmarkData data = new BenchmarkData(42);
+        Order order = data.orders(1, itemsPerOrder, data.books(1000), data.customers(10)).get(0);
+        orderItems = order.getOrderItems();
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotal() {
+        return OrderServiceImpl.calculateTotal(orderItems);
+    }
+}
@@ -0,0 +1,99 @@
+package com.wooseok.bookstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Jackson serialization of response bodies, with the ObjectMapper configured the way Spring Boot builds it
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SerializationBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    @State(Scope.Benchmark)
+    public static class BookListState {
+
+        @Param({"50", "1000"})
+        int size;
+
+        ObjectWriter writer;
+        List<BookDTO> books;
+
+        @Setup
+        public void setup() {
+            writer = OBJECT_MAPPER.writerFor(OBJECT_MAPPER.getTypeFactory()
+                    .constructCollectionType(List.class, BookDTO.class));
+
+            BookServiceImpl bookService = BenchmarkData.bookService();
+            books = new BenchmarkData(42).books(size).stream()
+                    .map(bookService::mapToDTO)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // One order and one 50-order page, with small and large carts
+    @State(Scope.Benchmark)
+    public static class OrderState {
+
+        @Param({"5", "50"})
+        int itemsPerOrder;
+
+        ObjectWriter orderWriter;
+        ObjectWriter pageWriter;
+        OrderDTO order;
+        List<OrderDTO> orders;
+
+        @Setup
+        public void setup() {
+            orderWriter = OBJECT_MAPPER.writerFor(OrderDTO.class);
+            pageWriter = OBJECT_MAPPER.writerFor(OBJECT_MAPPER.getTypeFactory()
+                    .constructCollectionType(List.class, OrderDTO.class));
+
+            BenchmarkData data = new BenchmarkData(42);
+            OrderServiceImpl orderService = BenchmarkData.orderService();
+            List<Book> books = data.books(1000);
+            orders = data.orders(50, itemsPerOrder, books, data.customers(100)).stream()
+                    .map(orderService::mapToDTO)
+                    .collect(Collectors.toList());
+            order = orders.get(0);
+        }
+    }
+
+    @Benchmark
+    public byte[] bookList(BookListState state) throws JsonProcessingException {
+        return state.writer.writeValueAsBytes(state.books);
+    }
+
+    @Benchmark
+    public byte[] singleOrder(OrderState state) throws JsonProcessingException {
+        return state.orderWriter.writeValueAsBytes(state.order);
+    }
+
+    @Benchmark
+    public byte[] orderPage(OrderState state) throws JsonProcessingException {
+        return state.pageWriter.writeValueAsBytes(state.orders);
+    }
+}
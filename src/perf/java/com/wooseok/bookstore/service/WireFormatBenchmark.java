@@ -0,0 +1,99 @@
+package com.wooseok.bookstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// JSON against the binary formats the API negotiates (see WireFormatConfig), both ways, on the
+// payloads service-to-service callers fetch: a 1,000-book listing and a page of 50 orders with 50
+// lines each. Setup checks that every format reads back DTOs equal to the originals (BigDecimal
+// scale included) and prints the payload size, which shows in the JMH output.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"books", "orders"})
+    String payload;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<?> values;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        // As Spring Boot configures it: dates as ISO-8601 strings
+        ObjectMapper mapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        BenchmarkData data = new BenchmarkData(42);
+        List<Book> books = data.books(1000);
+        Class<?> type;
+        if (payload.equals("books")) {
+            BookServiceImpl bookService = BenchmarkData.bookService();
+            values = books.stream().map(bookService::mapToDTO).collect(Collectors.toList());
+            type = BookDTO.class;
+        } else {
+            OrderServiceImpl orderService = BenchmarkData.orderService();
+            values = data.orders(50, 50, books, data.customers(100)).stream()
+                    .map(orderService::mapToDTO)
+                    .collect(Collectors.toList());
+            type = OrderDTO.class;
+        }
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, type);
+        writer = mapper.writerFor(listType);
+        reader = mapper.readerFor(listType);
+
+        bytes = writer.writeValueAsBytes(values);
+        List<?> roundTrip = reader.readValue(bytes);
+        if (!values.equals(roundTrip)) {
+            throw new IllegalStateException(format + " does not round-trip the " + payload + " payload");
+        }
+        System.out.printf("%n%s %s payload: %,d bytes%n", format, payload, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public List<?> deserialize() throws IOException {
+        return reader.readValue(bytes);
+    }
+}
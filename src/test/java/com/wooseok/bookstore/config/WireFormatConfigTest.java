@@ -0,0 +1,143 @@
+package com.wooseok.bookstore.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.dto.OrderItemDTO;
+import com.wooseok.bookstore.service.OrderService;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Books and orders sent and read back as Smile and CBOR, encoded and decoded by the application's own
+// converters. Prices must keep their scale ("19.90", not 19.9) and timestamps every digit, both in
+// the DTOs and on the wire.
+@BookstoreTest
+class WireFormatConfigTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestData data;
+
+    @ParameterizedTest
+    @ValueSource(strings = {SMILE, MediaType.APPLICATION_CBOR_VALUE})
+    void booksRoundTripWithTheirPriceScale(String type) throws Exception {
+        MediaType format = MediaType.valueOf(type);
+        BookDTO book = BookDTO.builder()
+                .title("Wire Format Book")
+                .author("Wire Author")
+                .isbn(data.isbn())
+                .category(data.category())
+                .price(new BigDecimal("19.90"))
+                .stockQuantity(10)
+                .build();
+
+        byte[] created = perform(post("/api/books"), format, book, status().isCreated());
+        BookDTO saved = read(created, format, BookDTO.class);
+        assertThat(saved.getPrice()).isEqualTo(new BigDecimal("19.90"));
+        assertThat(wireValue(created, format, "price")).isEqualTo(new BigDecimal("19.90"));
+
+        byte[] fetched = perform(get("/api/books/" + saved.getId()), format, null, status().isOk());
+        assertThat(read(fetched, format, BookDTO.class)).isEqualTo(saved);
+        assertThat(wireValue(fetched, format, "price")).isEqualTo(new BigDecimal("19.90"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {SMILE, MediaType.APPLICATION_CBOR_VALUE})
+    void ordersRoundTripWithTheirAmountsAndTimestamps(String type) throws Exception {
+        MediaType format = MediaType.valueOf(type);
+        CustomerDTO customer = data.customer();
+        BookDTO book = data.book(10);
+
+        byte[] created = perform(post("/api/orders"), format, TestData.orderOf(customer, book, book),
+                status().isCreated());
+        OrderDTO placed = read(created, format, OrderDTO.class);
+        assertThat(placed.getTotalAmount()).isEqualTo(new BigDecimal("25.00"));
+        assertThat(placed.getItems()).extracting(OrderItemDTO::getPrice)
+                .containsExactly(new BigDecimal("12.50"), new BigDecimal("12.50"));
+        assertThat(wireValue(created, format, "totalAmount")).isEqualTo(new BigDecimal("25.00"));
+
+        // As stored: the database keeps microseconds, and so must the response
+        OrderDTO stored = orderService.getOrderById(placed.getId());
+        byte[] fetched = perform(get("/api/orders/" + placed.getId()), format, null, status().isOk());
+        OrderDTO read = read(fetched, format, OrderDTO.class);
+        assertThat(read).isEqualTo(stored);
+        assertThat(LocalDateTime.parse((String) wireValue(fetched, format, "orderDate"))).isEqualTo(stored.getOrderDate());
+    }
+
+    private byte[] perform(MockHttpServletRequestBuilder request, MediaType format, Object body,
+                           ResultMatcher expectedStatus) throws Exception {
+        request.accept(format);
+        if (body != null) {
+            request.contentType(format).content(mapper(format).writeValueAsBytes(body));
+        }
+        return mockMvc.perform(request)
+                .andExpect(expectedStatus)
+                .andExpect(content().contentType(format))
+                .andExpect(result -> assertThat(result.getResponse().getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private <T> T read(byte[] body, MediaType format, Class<T> type) throws IOException {
+        return mapper(format).readValue(body, type);
+    }
+
+    private ObjectMapper mapper(MediaType format) {
+        return format.equals(MediaType.APPLICATION_CBOR) ? cborConverter.getObjectMapper() : smileConverter.getObjectMapper();
+    }
+
+    // The first top-level value of the field as the format itself encoded it, read without any mapper:
+    // a number as its exact BigDecimal, anything else as text
+    private static Object wireValue(byte[] body, MediaType format, String field) throws IOException {
+        JsonFactory factory = format.equals(MediaType.APPLICATION_CBOR) ? new CBORFactory() : new SmileFactory();
+        try (JsonParser parser = factory.createParser(body)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                JsonToken value = parser.nextToken();
+                if (parser.currentName().equals(field)) {
+                    return value.isNumeric() ? parser.getDecimalValue() : parser.getText();
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new AssertionError("No " + field + " field in the response");
+    }
+}
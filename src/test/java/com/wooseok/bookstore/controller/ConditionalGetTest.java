@@ -0,0 +1,124 @@
+package com.wooseok.bookstore.controller;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.service.BookService;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.wooseok.bookstore.support.SqlStatements.count;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A GET whose If-None-Match still matches is answered from the updatedAt projection alone.
+// JSON, Smile and CBOR responses of the same book are different bytes, so they have different ETags.
+@BookstoreTest
+class ConditionalGetTest {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TestData data;
+
+    private BookDTO book;
+
+    @BeforeEach
+    void setUp() {
+        book = data.book(5);
+        data.evictCaches();
+    }
+
+    @Test
+    void matchingETagReturns304AfterTheProjectionOnly() throws Exception {
+        String eTag = eTagOf("/api/books/" + book.getId());
+        data.evictCaches();
+
+        assertThat(count(() -> mockMvc.perform(get("/api/books/" + book.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void matchingETagOnAPageReturns304AfterTheProjectionOnly() throws Exception {
+        String eTag = eTagOf("/api/books?limit=20");
+
+        assertThat(count(() -> mockMvc.perform(get("/api/books?limit=20")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void staleETagReturnsTheBook() throws Exception {
+        String eTag = eTagOf("/api/books/" + book.getId());
+        book.setTitle(book.getTitle() + " (revised)");
+        bookService.updateBook(book.getId(), book);
+        data.evictCaches();
+
+        // The projection, then the book itself
+        assertThat(count(() -> mockMvc.perform(get("/api/books/" + book.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void eachWireFormatHasItsOwnETag() throws Exception {
+        String uri = "/api/books/" + book.getId();
+        String json = eTagOf(uri, MediaType.APPLICATION_JSON);
+        String smile = eTagOf(uri, SMILE);
+        String cbor = eTagOf(uri, MediaType.APPLICATION_CBOR);
+
+        assertThat(List.of(json, smile, cbor)).doesNotHaveDuplicates();
+        assertThat(eTagOf(uri)).isEqualTo(json);
+        assertThat(eTagOf(uri, MediaType.ALL)).isEqualTo(json);
+    }
+
+    @Test
+    void anETagOnlyMatchesItsOwnWireFormat() throws Exception {
+        String uri = "/api/books/" + book.getId();
+        String json = eTagOf(uri, MediaType.APPLICATION_JSON);
+        String smile = eTagOf(uri, SMILE);
+
+        mockMvc.perform(get(uri).accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE));
+        mockMvc.perform(get(uri).accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, smile))
+                .andExpect(status().isNotModified());
+    }
+
+    private String eTagOf(String uri) throws Exception {
+        return eTagOf(get(uri));
+    }
+
+    private String eTagOf(String uri, MediaType format) throws Exception {
+        return eTagOf(get(uri).accept(format));
+    }
+
+    private String eTagOf(MockHttpServletRequestBuilder request) throws Exception {
+        AtomicReference<String> eTag = new AtomicReference<>();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andDo(result -> eTag.set(result.getResponse().getHeader(HttpHeaders.ETAG)));
+        assertThat(eTag.get()).isNotBlank();
+        return eTag.get();
+    }
+}
@@ -0,0 +1,226 @@
+package com.wooseok.bookstore.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.dto.OrderItemDTO;
+import com.wooseok.bookstore.dto.SalesReportDTO;
+import com.wooseok.bookstore.dto.SalesReportRowDTO;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.repository.OrderRepository;
+import com.wooseok.bookstore.service.BookService;
+import com.wooseok.bookstore.service.OrderService;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The sales reports against the orders they summarize. The expected figures are added up here from
+// order_items, leaving out cancelled orders and async orders still pending, and compared with the
+// rollups written as orders are placed (summed over their shards) and with the rebuilt ones.
+@BookstoreTest
+class SalesReportConsistencyTest {
+
+    // Far above the 12.50 of TestData's books, so this test's books and categories lead the reports
+    private static final BigDecimal PRICE = new BigDecimal("100000.00");
+
+    record Totals(long orders, long units, BigDecimal revenue) {
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData data;
+
+    private final LocalDate from = LocalDate.now().minusDays(1);
+    private final LocalDate to = LocalDate.now().plusDays(1);
+
+    @Test
+    void reportsMatchTheOrdersBeforeAndAfterARebuild() throws Exception {
+        // Start from rollups that match the order history left by other tests
+        rebuild();
+
+        String fiction = data.category();
+        String poetry = data.category();
+        BookDTO novel = book(fiction, 1_000);
+        BookDTO saga = book(fiction, 1_000);
+        BookDTO sonnets = book(poetry, 1_000);
+        BookDTO scarce = book(poetry, 1);
+        CustomerDTO customer = data.customer();
+
+        // Two lines for the same book still make one order for it
+        placeOrder(customer, novel, 2, saga, 1);
+        placeOrder(customer, novel, 1, novel, 3);
+        placeOrder(customer, sonnets, 4);
+        // A batch spreads its orders over several shards
+        List<OrderDTO> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(orderOf(customer, i % 2 == 0 ? novel : sonnets, 1 + i % 3, saga, 1));
+        }
+        mockMvc.perform(post("/api/orders/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(batch)))
+                .andExpect(status().isOk());
+        // Accepted but never processed: still pending, in neither the live nor the rebuilt figures
+        orderService.acceptOrder(orderOf(customer, novel, 5));
+        // Processed and cancelled for lack of stock
+        Long cancelled = orderService.acceptOrder(orderOf(customer, scarce, 5, saga, 1)).getId();
+        orderService.processAcceptedOrders(List.of(cancelled));
+        assertThat(orderRepository.findStatusById(cancelled)).contains(Order.OrderStatus.CANCELLED);
+
+        Set<String> books = Set.of(novel.getId().toString(), saga.getId().toString(), sonnets.getId().toString(),
+                scarce.getId().toString());
+        Set<String> categories = Set.of(fiction, poetry);
+        assertThat(shardsOf("CATEGORY", fiction)).isGreaterThan(1);
+        assertReportsMatchTheOrders(books, categories);
+        // Only ever in the cancelled order
+        assertThat(report("book", books::contains)).doesNotContainKey(scarce.getId().toString());
+
+        rebuild();
+
+        assertThat(shardsOf("CATEGORY", fiction)).isEqualTo(1);
+        assertReportsMatchTheOrders(books, categories);
+        assertThat(report("book", books::contains)).doesNotContainKey(scarce.getId().toString());
+    }
+
+    private void assertReportsMatchTheOrders(Set<String> books, Set<String> categories) throws Exception {
+        List<Map<String, Object>> lines = jdbcTemplate.queryForList(
+                "SELECT o.id, o.status, o.order_date, oi.book_id, b.category, oi.quantity, oi.price, "
+                        + "EXISTS (SELECT 1 FROM pending_orders p WHERE p.order_id = o.id) AS pending "
+                        + "FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN books b ON b.id = oi.book_id "
+                        + "WHERE o.order_date >= ? AND o.order_date < ?",
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        List<Map<String, Object>> counted = lines.stream()
+                .filter(line -> !"CANCELLED".equals(line.get("status")) && !(Boolean) line.get("pending"))
+                .collect(Collectors.toList());
+
+        Map<String, Totals> byBook = totals(counted, line -> line.get("book_id").toString());
+        Map<String, Totals> byCategory = totals(counted, line -> (String) line.get("category"));
+        Map<String, Totals> byDay = totals(counted, line -> ((Timestamp) line.get("order_date"))
+                .toLocalDateTime().toLocalDate().toString());
+
+        assertThat(report("book", books::contains)).isEqualTo(select(byBook, books::contains));
+        assertThat(report("category", categories::contains)).isEqualTo(select(byCategory, categories::contains));
+        assertThat(report("day", key -> true)).isEqualTo(byDay);
+    }
+
+    private Map<String, Totals> report(String groupBy, Predicate<String> keys) throws Exception {
+        byte[] body = mockMvc.perform(get("/api/reports/sales")
+                        .param("groupBy", groupBy)
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("limit", "500"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        SalesReportDTO report = objectMapper.readValue(body, SalesReportDTO.class);
+        Map<String, Totals> totals = new HashMap<>();
+        for (SalesReportRowDTO row : report.getRows()) {
+            if (keys.test(row.getKey())) {
+                totals.put(row.getKey(), new Totals(row.getOrders(), row.getUnits(), scaled(row.getRevenue())));
+            }
+        }
+        return totals;
+    }
+
+    private static Map<String, Totals> totals(List<Map<String, Object>> lines,
+                                              Function<Map<String, Object>, String> key) {
+        Map<String, Set<Object>> orders = new HashMap<>();
+        Map<String, Totals> totals = new HashMap<>();
+        for (Map<String, Object> line : lines) {
+            String lineKey = key.apply(line);
+            int quantity = ((Number) line.get("quantity")).intValue();
+            BigDecimal revenue = ((BigDecimal) line.get("price")).multiply(BigDecimal.valueOf(quantity));
+            boolean newOrder = orders.computeIfAbsent(lineKey, k -> new HashSet<>()).add(line.get("id"));
+            totals.merge(lineKey, new Totals(newOrder ? 1 : 0, quantity, scaled(revenue)), (a, b) ->
+                    new Totals(a.orders() + b.orders(), a.units() + b.units(), a.revenue().add(b.revenue())));
+        }
+        return totals;
+    }
+
+    private static Map<String, Totals> select(Map<String, Totals> totals, Predicate<String> keys) {
+        return totals.entrySet().stream()
+                .filter(entry -> keys.test(entry.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private static BigDecimal scaled(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UNNECESSARY);
+    }
+
+    private int shardsOf(String dimension, String key) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT shard) FROM sales_rollups "
+                + "WHERE dimension = ? AND dimension_key = ?", Integer.class, dimension, key);
+    }
+
+    private void rebuild() throws Exception {
+        mockMvc.perform(post("/api/reports/sales/rebuild")).andExpect(status().isOk());
+    }
+
+    private void placeOrder(CustomerDTO customer, Object... booksAndQuantities) throws Exception {
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(orderOf(customer, booksAndQuantities))))
+                .andExpect(status().isCreated());
+    }
+
+    // Pairs of book and quantity
+    private static OrderDTO orderOf(CustomerDTO customer, Object... booksAndQuantities) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < booksAndQuantities.length; i += 2) {
+            items.add(OrderItemDTO.builder()
+                    .bookId(((BookDTO) booksAndQuantities[i]).getId())
+                    .quantity((Integer) booksAndQuantities[i + 1])
+                    .build());
+        }
+        return OrderDTO.builder().customerId(customer.getId()).items(items).build();
+    }
+
+    private BookDTO book(String category, int stock) {
+        String isbn = data.isbn();
+        return bookService.createBook(BookDTO.builder()
+                .title("Report Book " + isbn)
+                .author("Report Author")
+                .isbn(isbn)
+                .category(category)
+                .price(PRICE)
+                .stockQuantity(stock)
+                .build());
+    }
+}
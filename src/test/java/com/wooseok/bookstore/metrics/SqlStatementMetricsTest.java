@@ -0,0 +1,66 @@
+package com.wooseok.bookstore.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.SqlStatements;
+import com.wooseok.bookstore.support.TestData;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.wooseok.bookstore.support.SqlStatements.capture;
+import static com.wooseok.bookstore.support.SqlStatements.count;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// bookstore.http.sql.statements against the test proxy's count of the same request
+@BookstoreTest
+class SqlStatementMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestData data;
+
+    @Test
+    void anOrderRequestRecordsItsJdbcTemplateStatementsToo() throws Exception {
+        CustomerDTO customer = data.customer();
+        BookDTO first = data.book(10);
+        BookDTO second = data.book(10);
+        byte[] body = objectMapper.writeValueAsBytes(TestData.orderOf(customer, first, second));
+        DistributionSummary summary = meterRegistry.find("bookstore.http.sql.statements")
+                .tags("method", "POST", "uri", "/api/orders")
+                .summary();
+        long requestsBefore = summary == null ? 0 : summary.count();
+        double statementsBefore = summary == null ? 0 : summary.totalAmount();
+
+        long[] counted = new long[1];
+        List<SqlStatements.Statement> statements = capture(() -> counted[0] = count(() -> mockMvc.perform(
+                        post("/api/orders").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())));
+
+        summary = meterRegistry.get("bookstore.http.sql.statements")
+                .tags("method", "POST", "uri", "/api/orders")
+                .summary();
+        assertThat(summary.count()).isEqualTo(requestsBefore + 1);
+        assertThat(summary.totalAmount() - statementsBefore).isEqualTo(counted[0]);
+        // The stock decrements run through JdbcTemplate, outside Hibernate
+        assertThat(statements).extracting(SqlStatements.Statement::sql)
+                .anySatisfy(sql -> assertThat(sql).containsIgnoringCase("update books"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.service.BookService;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Stock updates bypass Hibernate, so the cached Book must not outlive them
+@BookstoreTest
+class BookStockCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestData data;
+
+    @Test
+    void theUpdatingTransactionReadsItsOwnStock() {
+        BookDTO book = data.book(5);
+        bookService.getBookById(book.getId());
+
+        Integer inTransaction = transactionTemplate.execute(status -> {
+            bookRepository.decrementStock(book.getId(), 2);
+            return bookService.getBookById(book.getId()).getStockQuantity();
+        });
+
+        assertThat(inTransaction).isEqualTo(3);
+        assertThat(bookService.getBookById(book.getId()).getStockQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void readersAfterCommitSeeTheNewStock() {
+        BookDTO book = data.book(5);
+        bookService.getBookById(book.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.incrementStock(book.getId(), 4);
+            // Cached again by this transaction before it commits
+            bookService.getBookById(book.getId());
+        });
+
+        assertThat(bookService.getBookById(book.getId()).getStockQuantity()).isEqualTo(9);
+    }
+}
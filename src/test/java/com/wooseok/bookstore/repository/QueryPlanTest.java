@@ -0,0 +1,172 @@
+package com.wooseok.bookstore.repository;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.model.SalesRollup;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.SqlStatements;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.wooseok.bookstore.support.SqlStatements.capture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.STRING;
+
+// Every repository query that filters, seeks or joins must be planned on an index. The SQL is what
+// Hibernate renders, captured with its parameters and run again under EXPLAIN with the planner's
+// default settings. A plan that reads a whole table shows "tableScan" on H2 and "Seq Scan" on
+// PostgreSQL. Queries that read a whole table by design are not checked: exports, findAll and the
+// search index build. The title/author LIKE fallback is not checked either, because its trigram
+// indexes exist on PostgreSQL only (V3).
+@BookstoreTest
+class QueryPlanTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestData data;
+
+    private BookDTO book;
+    private CustomerDTO customer;
+    private OrderDTO order;
+
+    @BeforeEach
+    void setUp() {
+        book = data.book(2);
+        customer = data.customer();
+        order = data.order(customer, book);
+        // Cached queries would not reach the database at all
+        data.evictCaches();
+    }
+
+    @Test
+    void bookQueriesUseAnIndex() throws Exception {
+        assertIndexed(() -> bookRepository.findByIsbn(book.getIsbn()));
+        assertIndexed(() -> bookRepository.findIdsByIsbnIn(List.of(book.getIsbn(), "9780000000000")));
+        assertIndexed(() -> bookRepository.findByCategory(book.getCategory()));
+        assertIndexed(() -> bookRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(book.getCategory(), 0L, Limit.of(51)));
+        assertIndexed(() -> bookRepository.findByAuthor(book.getAuthor()));
+        assertIndexed(() -> bookRepository.findByPriceBetweenAndIdGreaterThanOrderByIdAsc(
+                new BigDecimal("12.00"), new BigDecimal("13.00"), 0L, Limit.of(51)));
+        assertIndexed(() -> bookRepository.findByStockQuantityLessThanAndIdGreaterThanOrderByIdAsc(3, 0L, Limit.of(51)));
+        assertIndexed(() -> bookRepository.findUpdatedAtById(book.getId()));
+        assertIndexed(() -> bookRepository.findCollectionVersionByCategory(book.getCategory()));
+        assertIndexed(() -> bookRepository.findStockQuantityById(book.getId()));
+    }
+
+    @Test
+    void customerQueriesUseAnIndex() throws Exception {
+        assertIndexed(() -> customerRepository.findByEmail(customer.getEmail()));
+        assertIndexed(() -> customerRepository.existsByEmail(customer.getEmail()));
+        assertIndexed(() -> customerRepository.findEmailsIn(List.of(customer.getEmail(), "nobody@test.example")));
+        assertIndexed(() -> customerRepository.findUpdatedAtById(customer.getId()));
+    }
+
+    @Test
+    void orderQueriesUseAnIndex() throws Exception {
+        assertIndexed(() -> orderRepository.findByCustomerId(customer.getId()));
+        assertIndexed(() -> orderRepository.findByCustomerIdOrderByOrderDateDesc(customer.getId()));
+        assertIndexed(() -> orderRepository.findIdsByCustomerIdAfter(customer.getId(), 0L, Limit.of(51)));
+        assertIndexed(() -> orderRepository.findByStatus(Order.OrderStatus.CANCELLED));
+        assertIndexed(() -> orderRepository.findTransitionableIdsAfter(Order.OrderStatus.CANCELLED, 0L, Limit.of(1000)));
+        assertIndexed(() -> orderRepository.findStatusById(order.getId()));
+        assertIndexed(() -> orderRepository.findByIdWithDetails(order.getId()));
+        assertIndexed(() -> orderRepository.findAllWithDetailsByIdIn(List.of(order.getId())));
+        assertIndexed(() -> orderItemRepository.findByOrderId(order.getId()));
+        assertIndexed(() -> orderItemRepository.findByBookId(book.getId()));
+        assertIndexed(() -> orderItemRepository.findByOrderIdInWithBook(List.of(order.getId())));
+    }
+
+    @Test
+    void bulkTransitionsSeekOnTheStatusAndIdIndex() throws Exception {
+        // V5: the keyset scan reads one status in id order from (status, id), with no sort
+        assertThat(plans(() -> orderRepository.findTransitionableIdsAfter(Order.OrderStatus.PENDING, 0L, Limit.of(1000))))
+                .singleElement(STRING)
+                .containsIgnoringCase("idx_orders_status_id");
+    }
+
+    @Test
+    void salesQueriesUseAnIndex() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        assertIndexed(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<OrderItemRepository.SoldLine> lines = orderItemRepository.streamSoldLines(
+                    now.minusHours(1), now.plusMinutes(1), Order.OrderStatus.CANCELLED)) {
+                lines.count();
+            }
+        }));
+        LocalDate today = LocalDate.now();
+        assertIndexed(() -> salesRollupRepository.sumByKey(
+                SalesRollup.Dimension.CATEGORY, today.minusDays(30), today, PageRequest.of(0, 100)));
+        assertIndexed(() -> salesRollupRepository.sumByDay(SalesRollup.Dimension.TOTAL, today.minusDays(30), today));
+    }
+
+    private void assertIndexed(SqlStatements.Call call) throws Exception {
+        List<SqlStatements.Statement> selects = selects(call);
+        assertThat(selects).isNotEmpty();
+        for (SqlStatements.Statement select : selects) {
+            assertThat(explain(select))
+                    .as(select.sql())
+                    .doesNotContainIgnoringCase("tableScan")
+                    .doesNotContain("Seq Scan");
+        }
+    }
+
+    private List<String> plans(SqlStatements.Call call) throws Exception {
+        return selects(call).stream().map(this::explain).collect(Collectors.toList());
+    }
+
+    private static List<SqlStatements.Statement> selects(SqlStatements.Call call) throws Exception {
+        return capture(call).stream()
+                .filter(statement -> statement.sql().regionMatches(true, 0, "select", 0, 6))
+                .collect(Collectors.toList());
+    }
+
+    private String explain(SqlStatements.Statement statement) {
+        return jdbcTemplate.query("EXPLAIN " + statement.sql(), ps -> {
+            for (int i = 0; i < statement.parameters().size(); i++) {
+                ps.setObject(i + 1, statement.parameters().get(i));
+            }
+        }, rs -> {
+            List<String> lines = new ArrayList<>();
+            while (rs.next()) {
+                lines.add(rs.getString(1));
+            }
+            return String.join("\n", lines);
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.repository.BookRepository;
+import com.wooseok.bookstore.repository.OrderItemRepository;
+import com.wooseok.bookstore.repository.OrderRepository;
+import com.wooseok.bookstore.repository.PendingOrderRepository;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The async order path: accepted orders wait in pending_orders until a worker claims them, and are
+// not sales until then
+@BookstoreTest
+class AcceptedOrderTest {
+
+    private static final int WORKERS = 4;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PendingOrderRepository pendingOrderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestData data;
+
+    @Test
+    void workersGivenTheSameOrdersProcessEachOnce() throws Exception {
+        BookDTO book = data.book(100);
+        CustomerDTO customer = data.customer();
+        List<Long> orderIds = IntStream.range(0, 20)
+                .mapToObj(i -> orderService.acceptOrder(TestData.orderOf(customer, book)).getId())
+                .collect(Collectors.toList());
+
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        try {
+            for (int w = 0; w < WORKERS; w++) {
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.processAcceptedOrders(orderIds);
+                    } catch (RuntimeException e) {
+                        failures.add(e);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(failures).isEmpty();
+        data.evictCaches();
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getStockQuantity()).isEqualTo(80);
+        assertThat(orderRepository.findAllById(orderIds))
+                .allSatisfy(order -> assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED));
+        assertThat(pendingOrderRepository.findAllById(orderIds)).isEmpty();
+        assertThat(rolledUpOrders(book)).isEqualTo(20);
+    }
+
+    @Test
+    void pendingOrdersAreLeftOutOfTheRebuilds() {
+        BookDTO book = data.book(10);
+        Long orderId = orderService.acceptOrder(TestData.orderOf(data.customer(), book)).getId();
+
+        salesReportService.rebuildRollups();
+        assertThat(rolledUpOrders(book)).isZero();
+        assertThat(soldLines(book)).isZero();
+
+        orderService.processAcceptedOrders(List.of(orderId));
+        salesReportService.rebuildRollups();
+        assertThat(rolledUpOrders(book)).isEqualTo(1);
+        assertThat(soldLines(book)).isEqualTo(1);
+    }
+
+    private long rolledUpOrders(BookDTO book) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(order_count), 0) FROM sales_rollups WHERE dimension = 'BOOK' AND dimension_key = ?",
+                Long.class, book.getId().toString());
+    }
+
+    // Lines the bestseller tracker replays at startup
+    private long soldLines(BookDTO book) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            try (Stream<OrderItemRepository.SoldLine> lines = orderItemRepository.streamSoldLines(
+                    now.minusHours(1), now.plusMinutes(1), Order.OrderStatus.CANCELLED)) {
+                return lines.filter(line -> line.getBookId().equals(book.getId())).count();
+            }
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BestsellerDTO;
+import com.wooseok.bookstore.dto.BestsellersDTO;
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.model.OrderItem;
+import com.wooseok.bookstore.repository.OrderItemRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Rankings from replayed and newly recorded sales, with the order dates picking the buckets
+class BestsellerServiceImplTest {
+
+    private OrderItemRepository orderItemRepository;
+    private BestsellerServiceImpl bestsellers;
+
+    @BeforeEach
+    void setUp() {
+        orderItemRepository = mock(OrderItemRepository.class);
+        when(orderItemRepository.streamSoldLines(any(), any(), any())).thenReturn(Stream.empty());
+        bestsellers = new BestsellerServiceImpl(orderItemRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(bestsellers, "topK", 3);
+    }
+
+    @Test
+    void eachSaleCountsInTheWindowsItFallsIn() {
+        LocalDateTime now = LocalDateTime.now();
+        when(orderItemRepository.streamSoldLines(any(), any(), any())).thenReturn(Stream.of(
+                line(1L, "Fiction", 5, now.minusMinutes(1)),
+                line(2L, "Fiction", 7, now.minusHours(2)),
+                line(3L, "Fiction", 9, now.minusDays(3)),
+                line(4L, "Fiction", 20, now.minusDays(8))));
+        bestsellers.rebuild();
+
+        // Outside a transaction a sale counts at once
+        bestsellers.recordOrders(List.of(order(now, book(1L, "Fiction"), 1)));
+        bestsellers.refresh();
+
+        assertThat(ranking("hour", null)).containsExactly(tuple(1L, 6L));
+        assertThat(ranking("day", null)).containsExactly(tuple(2L, 7L), tuple(1L, 6L));
+        // A week back is the ring's end: the 8-day-old sale is in no window
+        assertThat(ranking("week", null)).containsExactly(tuple(3L, 9L), tuple(2L, 7L), tuple(1L, 6L));
+    }
+
+    @Test
+    void everyCategoryKeepsItsOwnTopK() {
+        LocalDateTime now = LocalDateTime.now();
+        when(orderItemRepository.streamSoldLines(any(), any(), any())).thenReturn(Stream.of(
+                line(1L, "Fiction", 3, now),
+                line(2L, "Fiction", 5, now),
+                line(3L, "Fiction", 4, now),
+                line(6L, "Fiction", 5, now),
+                line(7L, "Fiction", 1, now),
+                line(4L, "Poetry", 10, now),
+                line(5L, "Poetry", 1, now)));
+        bestsellers.rebuild();
+
+        // K = 3; equal sales rank the lower book id first
+        assertThat(ranking("day", null)).containsExactly(tuple(4L, 10L), tuple(2L, 5L), tuple(6L, 5L));
+        assertThat(ranking("day", "Fiction")).containsExactly(tuple(2L, 5L), tuple(6L, 5L), tuple(3L, 4L));
+        assertThat(ranking("day", "Poetry")).containsExactly(tuple(4L, 10L), tuple(5L, 1L));
+        assertThat(ranking("day", "Drama")).isEmpty();
+
+        BestsellersDTO top = bestsellers.getBestsellers("day", "Fiction", 1);
+        assertThat(top.getBooks()).extracting(BestsellerDTO::getBookId, BestsellerDTO::getCategory)
+                .containsExactly(tuple(2L, "Fiction"));
+        assertThatThrownBy(() -> bestsellers.getBestsellers("day", null, 4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Limit must be between 1 and 3");
+        assertThatThrownBy(() -> bestsellers.getBestsellers("month", null, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("window must be one of: hour, day, week");
+    }
+
+    @Test
+    void aNewSaleCanMoveABookIntoTheTopK() {
+        LocalDateTime now = LocalDateTime.now();
+        when(orderItemRepository.streamSoldLines(any(), any(), any())).thenReturn(Stream.of(
+                line(1L, "Fiction", 4, now),
+                line(2L, "Fiction", 3, now),
+                line(3L, "Fiction", 2, now),
+                line(4L, "Fiction", 1, now)));
+        bestsellers.rebuild();
+        assertThat(ranking("hour", "Fiction")).containsExactly(tuple(1L, 4L), tuple(2L, 3L), tuple(3L, 2L));
+
+        bestsellers.recordOrders(List.of(order(now, book(4L, "Fiction"), 2), order(now, book(4L, "Fiction"), 1)));
+
+        // Published by the next refresh only
+        assertThat(ranking("hour", "Fiction")).containsExactly(tuple(1L, 4L), tuple(2L, 3L), tuple(3L, 2L));
+        bestsellers.refresh();
+        assertThat(ranking("hour", "Fiction")).containsExactly(tuple(1L, 4L), tuple(4L, 4L), tuple(2L, 3L));
+    }
+
+    // (book id, units) pairs, best seller first
+    private List<Tuple> ranking(String window, String category) {
+        return bestsellers.getBestsellers(window, category, 3).getBooks().stream()
+                .map(book -> tuple(book.getBookId(), book.getUnits()))
+                .collect(Collectors.toList());
+    }
+
+    private static Book book(Long id, String category) {
+        return Book.builder().id(id).title("Book " + id).author("Author " + id).category(category).build();
+    }
+
+    private static Order order(LocalDateTime orderDate, Book book, int quantity) {
+        Order order = Order.builder().orderDate(orderDate).build();
+        order.setOrderItems(List.of(OrderItem.builder().order(order).book(book).quantity(quantity).build()));
+        return order;
+    }
+
+    private static OrderItemRepository.SoldLine line(Long bookId, String category, int quantity, LocalDateTime orderDate) {
+        return new OrderItemRepository.SoldLine() {
+            @Override
+            public Long getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public String getTitle() {
+                return "Book " + bookId;
+            }
+
+            @Override
+            public String getAuthor() {
+                return "Author " + bookId;
+            }
+
+            @Override
+            public String getCategory() {
+                return category;
+            }
+
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public LocalDateTime getOrderDate() {
+                return orderDate;
+            }
+        };
+    }
+}
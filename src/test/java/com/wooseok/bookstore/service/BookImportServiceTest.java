@@ -0,0 +1,181 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.BookImportErrorDTO;
+import com.wooseok.bookstore.dto.BookImportResultDTO;
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.repository.BookRepository;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+
+// Catalog feeds through BookImportService into the books table, the search index and the
+// inventory engine
+@BookstoreTest
+class BookImportServiceTest {
+
+    private static final String HEADER = "isbn,title,author,category,price,stock_quantity\n";
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    private TestData data;
+
+    @SpyBean
+    private InventoryService inventoryService;
+
+    @Test
+    void existingIsbnsAreUpdatedWithoutTouchingTheirStock() throws IOException {
+        BookDTO existing = data.book(7);
+        String isbn = data.isbn();
+
+        BookImportResultDTO result = importCsv(
+                row(existing.getIsbn(), "Revised Title", "9.99", "500")
+                        + row(isbn, "New Title", "15.00", "30"));
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.isCompleted()).isTrue();
+        data.evictCaches();
+        Book updated = bookRepository.findByIsbn(existing.getIsbn()).orElseThrow();
+        assertThat(updated.getTitle()).isEqualTo("Revised Title");
+        assertThat(updated.getPrice()).isEqualByComparingTo("9.99");
+        assertThat(updated.getStockQuantity()).isEqualTo(7);
+        assertThat(bookRepository.findByIsbn(isbn).orElseThrow().getStockQuantity()).isEqualTo(30);
+
+        // Sending the same feed again changes nothing but the update count
+        BookImportResultDTO again = importCsv(
+                row(existing.getIsbn(), "Revised Title", "9.99", "500")
+                        + row(isbn, "New Title", "15.00", "30"));
+        assertThat(again.getInserted()).isZero();
+        assertThat(again.getUpdated()).isEqualTo(2);
+        assertThat(bookRepository.findByIsbn(isbn).orElseThrow().getStockQuantity()).isEqualTo(30);
+    }
+
+    @Test
+    void theLastRowForAnIsbnInAChunkWins() throws IOException {
+        String isbn = data.isbn();
+
+        BookImportResultDTO result = importCsv(
+                row(isbn, "First Draft", "10.00", "1")
+                        + row(isbn, "Final Draft", "11.00", "2"));
+
+        assertThat(result.getRows()).isEqualTo(2);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(bookRepository.findByIsbn(isbn).orElseThrow().getTitle()).isEqualTo("Final Draft");
+    }
+
+    @Test
+    void invalidRowsAreReportedAndTheRestImported() throws IOException {
+        String good = data.isbn();
+        String noTitle = data.isbn();
+        String badPrice = data.isbn();
+
+        BookImportResultDTO result = importCsv(
+                row(good, "Good Book", "10.00", "1")
+                        + row(noTitle, "", "10.00", "1")
+                        + row(badPrice, "Cheap Book", "free", "1")
+                        + "not-an-isbn,Short Row\n");
+
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getErrors()).extracting(BookImportErrorDTO::getLine).containsExactly(3L, 4L, 5L);
+        assertThat(result.getErrors()).extracting(BookImportErrorDTO::getIsbn).containsExactly(noTitle, badPrice, null);
+        assertThat(result.getErrors()).extracting(BookImportErrorDTO::getMessage).containsExactly(
+                "title: Title is required",
+                "price: not a number: free",
+                "Expected 6 fields, found 2");
+        assertThat(bookRepository.findByIsbn(noTitle)).isEmpty();
+    }
+
+    @Test
+    void aRowTheDatabaseRejectsCostsOnlyItself() throws IOException {
+        String before = data.isbn();
+        String tooExpensive = data.isbn();
+        String after = data.isbn();
+
+        // Valid for BookDTO (10 integer digits) but too large for price NUMERIC(10, 2): the chunk
+        // fails as a whole and its rows are retried one by one
+        BookImportResultDTO result = importCsv(
+                row(before, "Retried Before", "10.00", "3")
+                        + row(tooExpensive, "Retried Too Expensive", "1234567890.00", "3")
+                        + row(after, "Retried After", "10.00", "4"));
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(3);
+            assertThat(error.getIsbn()).isEqualTo(tooExpensive);
+            assertThat(error.getMessage()).isNotBlank();
+        });
+        assertThat(bookRepository.findByIsbn(before)).isPresent();
+        assertThat(bookRepository.findByIsbn(tooExpensive)).isEmpty();
+        assertThat(bookRepository.findByIsbn(after)).isPresent();
+
+        // The rolled-back chunk ran no hooks: each imported book reached the index and the
+        // inventory engine once, and the rejected one not at all
+        assertThat(createdIsbns()).containsExactlyInAnyOrder(before, after);
+        assertThat(titleMatches("Retried")).containsExactlyInAnyOrder(idOf(before), idOf(after));
+    }
+
+    @Test
+    void committedChunksReachTheSearchIndexAndTheInventoryEngine() throws IOException {
+        BookDTO existing = data.book(7);
+        String isbn = data.isbn();
+
+        importCsv(row(existing.getIsbn(), "Indexed Renamed Quokka", "9.99", "1")
+                + row(isbn, "Indexed New Quokka", "15.00", "30"));
+
+        assertThat(titleMatches("Quokka")).containsExactlyInAnyOrder(existing.getId(), idOf(isbn));
+        // createBook announced the existing book. The import only announces the new one, since an
+        // existing book's stock already belongs to the engine.
+        assertThat(createdIsbns()).containsExactly(existing.getIsbn(), isbn);
+    }
+
+    private BookImportResultDTO importCsv(String rows) throws IOException {
+        byte[] feed = (HEADER + rows).getBytes(StandardCharsets.UTF_8);
+        return bookImportService.importBooks(new ByteArrayInputStream(feed), ImportFormat.CSV, null);
+    }
+
+    private static String row(String isbn, String title, String price, String stock) {
+        return String.join(",", isbn, title, "Import Author", "Imports", price, stock) + "\n";
+    }
+
+    private List<String> createdIsbns() {
+        ArgumentCaptor<Book> captor = ArgumentCaptor.forClass(Book.class);
+        verify(inventoryService, atLeast(0)).bookCreated(captor.capture());
+        return captor.getAllValues().stream().map(Book::getIsbn).collect(Collectors.toList());
+    }
+
+    private List<Long> titleMatches(String query) {
+        return searchIndex.search(BookSearchIndex.Field.TITLE, query, 100);
+    }
+
+    private Long idOf(String isbn) {
+        return bookRepository.findByIsbn(isbn).orElseThrow().getId();
+    }
+}
@@ -0,0 +1,88 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSearchIndexTest {
+
+    private BookRepository bookRepository;
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        index = new BookSearchIndex(bookRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void isReadyOnceBuilt() {
+        when(bookRepository.streamSearchFields()).thenReturn(Stream.of(row(1L, "Winter Harbor", "Ann Reed")));
+
+        assertThat(index.isReady()).isFalse();
+        index.build();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search(BookSearchIndex.Field.TITLE, "harbor", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void changesCommittedDuringTheBuildWinOverItsRows() {
+        // Commits landing after the build started, whose rows the build still reads as they were
+        when(bookRepository.streamSearchFields()).thenAnswer(invocation -> {
+            index.put(Book.builder().id(1L).title("Winter Harbor, Revised").author("Ann Reed").build());
+            index.put(Book.builder().id(3L).title("Summer Harbor").author("Ann Reed").build());
+            index.remove(2L);
+            return Stream.of(
+                    row(1L, "Winter Harbor", "Ann Reed"),
+                    row(2L, "Glass Harbor", "Ann Reed"),
+                    row(3L, "Summer Harbor", "Ann Reed"));
+        });
+
+        index.build();
+
+        assertThat(index.search(BookSearchIndex.Field.TITLE, "harbor", 10)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search(BookSearchIndex.Field.AUTHOR, "ann reed", 10)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search(BookSearchIndex.Field.TITLE, "revised", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void rebuildStartsFromScratch() {
+        when(bookRepository.streamSearchFields())
+                .thenReturn(Stream.of(row(1L, "Winter Harbor", "Ann Reed")))
+                .thenReturn(Stream.of(row(2L, "Glass Harbor", "Ann Reed")));
+
+        index.build();
+        index.build();
+
+        assertThat(index.search(BookSearchIndex.Field.TITLE, "harbor", 10)).containsExactly(2L);
+    }
+
+    private static BookRepository.SearchFields row(Long id, String title, String author) {
+        return new BookRepository.SearchFields() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getAuthor() {
+                return author;
+            }
+        };
+    }
+}
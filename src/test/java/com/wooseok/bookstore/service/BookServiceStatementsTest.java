@@ -0,0 +1,87 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.MaxStatements;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+import static com.wooseok.bookstore.support.SqlStatements.count;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// SQL statements per BookService call, with the second-level cache empty unless a test warms it
+@BookstoreTest
+class BookServiceStatementsTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TestData data;
+
+    private String category;
+    private BookDTO book;
+
+    @BeforeEach
+    void setUp() {
+        category = data.category();
+        book = data.book(category, 5);
+        data.book(category, 5);
+        data.book(category, 5);
+        data.evictCaches();
+    }
+
+    @Test
+    void createBookIsOneInsertPlusTheOccasionalSequenceCall() throws Exception {
+        // The pooled id sequence is called once per 50 ids
+        assertThat(count(() -> data.book(5))).isBetween(1L, 2L);
+    }
+
+    @Test
+    void getBookByIdIsOneSelectThenServedFromTheCache() throws Exception {
+        assertThat(count(() -> bookService.getBookById(book.getId()))).isEqualTo(1);
+        assertThat(count(() -> bookService.getBookById(book.getId()))).isZero();
+    }
+
+    @Test
+    void pagesAndSearchesAreOneSelect() throws Exception {
+        assertThat(count(() -> bookService.getBooks(null, 50))).isEqualTo(1);
+        assertThat(count(() -> bookService.searchByCategory(category, null, 2))).isEqualTo(1);
+        assertThat(count(() -> bookService.findByPriceRange(BigDecimal.ONE, new BigDecimal("100"), null, 50)))
+                .isEqualTo(1);
+        assertThat(count(() -> bookService.findLowStockBooks(10, null, 50))).isEqualTo(1);
+        assertThat(count(() -> bookService.findBooksByTitle("Test Book", 20))).isEqualTo(1);
+        assertThat(count(() -> bookService.findBooksByAuthor("Test Author", 20))).isEqualTo(1);
+        assertThat(count(() -> bookService.getAllBooks())).isEqualTo(1);
+    }
+
+    @Test
+    void updateAndDeleteLoadTheBookOnce() throws Exception {
+        book.setTitle(book.getTitle() + " (2nd edition)");
+        assertThat(count(() -> bookService.updateBook(book.getId(), book))).isEqualTo(2);
+        assertThat(count(() -> bookService.deleteBook(book.getId()))).isEqualTo(2);
+    }
+
+    @Test
+    void etagsAreOneProjection() throws Exception {
+        assertThat(count(() -> bookService.getBookETag(book.getId()))).isEqualTo(1);
+        assertThat(count(() -> bookService.getBooksETag(null, 50))).isEqualTo(1);
+        assertThat(count(() -> bookService.getCategoryETag(category, null, 50))).isEqualTo(1);
+    }
+
+    @Test
+    void exportIsOneStreamingSelect() throws Exception {
+        assertThat(count(() -> bookService.exportBooks(OutputStream.nullOutputStream()))).isEqualTo(1);
+    }
+
+    @Test
+    @MaxStatements(1)
+    void getAllBooksIsOneSelect() {
+        assertThat(bookService.getAllBooks()).isNotEmpty();
+    }
+}
@@ -0,0 +1,174 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.CustomerImportResultDTO;
+import com.wooseok.bookstore.dto.CustomerImportRowDTO;
+import com.wooseok.bookstore.repository.CustomerRepository;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.wooseok.bookstore.support.SqlStatements.count;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Customer lists through CustomerImportService, with the email filter built
+@BookstoreTest
+class CustomerImportServiceTest {
+
+    private static final String HEADER = "firstName,lastName,email,phoneNumber,address\n";
+
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerEmailFilter emailFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData data;
+
+    @BeforeEach
+    void waitForTheEmailFilter() throws InterruptedException {
+        // Built in the background once the application is ready
+        for (int i = 0; i < 100 && !emailFilter.isReady(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(emailFilter.isReady()).isTrue();
+    }
+
+    @Test
+    void aRepeatedEmailInAChunkKeepsItsFirstRow() throws IOException {
+        String email = data.email();
+
+        CustomerImportResultDTO result = importCsv(row("First", email) + row("Second", email));
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getResults()).singleElement().isEqualTo(
+                new CustomerImportRowDTO(3, email, "DUPLICATE", "Email already used on line 2"));
+        assertThat(customerRepository.findByEmail(email).orElseThrow().getFirstName()).isEqualTo("First");
+    }
+
+    @Test
+    void takenEmailsAreReportedAndTheRestCreated() throws IOException {
+        CustomerDTO existing = data.customer();
+        String email = data.email();
+
+        CustomerImportResultDTO result = importCsv(row("Taken", existing.getEmail()) + row("Free", email));
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getEmailExists()).isEqualTo(1);
+        assertThat(result.getResults()).singleElement().isEqualTo(
+                new CustomerImportRowDTO(2, existing.getEmail(), "EMAIL_EXISTS", "Email already exists"));
+        assertThat(customerRepository.findByEmail(existing.getEmail()).orElseThrow().getLastName())
+                .isEqualTo(existing.getLastName());
+        assertThat(customerRepository.findByEmail(email)).isPresent();
+    }
+
+    @Test
+    void anEmailTheFilterMissedIsCaughtByTheOneRowRetry() throws IOException {
+        // Written by "another instance": in the table, but never added to this filter
+        String missed = data.email();
+        Long id = jdbcTemplate.queryForObject("SELECT nextval('customers_seq')", Long.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO customers (id, first_name, last_name, email, phone_number, created_at, "
+                + "updated_at) VALUES (?, 'Other', 'Instance', ?, '555-0000', ?, ?)", id, missed, now, now);
+        assertThat(emailFilter.mightContain(missed)).isFalse();
+        String before = data.email();
+        String after = data.email();
+
+        CustomerImportResultDTO result = importCsv(row("Before", before) + row("Missed", missed) + row("After", after));
+
+        // Never looked up: the unique constraint failed the chunk and the retry found the taken email
+        assertThat(result.getEmailsLookedUp()).isZero();
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getEmailExists()).isEqualTo(1);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getResults()).singleElement().isEqualTo(
+                new CustomerImportRowDTO(3, missed, "EMAIL_EXISTS", "Email already exists"));
+        assertThat(customerRepository.findByEmail(before)).isPresent();
+        assertThat(customerRepository.findByEmail(after)).isPresent();
+        assertThat(customerRepository.findByEmail(missed).orElseThrow().getId()).isEqualTo(id);
+    }
+
+    @Test
+    void invalidRowsAreReported() throws IOException {
+        String noPhone = data.email();
+
+        CustomerImportResultDTO result = importCsv(
+                "Ada,Lovelace," + noPhone + ",,\n"
+                        + "Bad,Email,not-an-email,555-0101,\n"
+                        + "Too,Few\n");
+
+        assertThat(result.getCreated()).isZero();
+        assertThat(result.getInvalid()).isEqualTo(3);
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getResults()).extracting(CustomerImportRowDTO::getLine).containsExactly(2L, 3L, 4L);
+        assertThat(result.getResults()).extracting(CustomerImportRowDTO::getStatus).containsOnly("INVALID");
+        assertThat(result.getResults().get(0).getMessage()).startsWith("phoneNumber: ");
+        assertThat(result.getResults().get(1).getMessage()).isEqualTo("email: Invalid email format");
+        assertThat(result.getResults().get(2).getMessage()).isEqualTo("Expected 5 fields, found 2");
+        assertThat(customerRepository.findByEmail(noPhone)).isEmpty();
+    }
+
+    @Test
+    void everyImportedEmailIsInTheFilter() throws IOException {
+        List<String> emails = IntStream.range(0, 300).mapToObj(i -> data.email()).collect(Collectors.toList());
+
+        CustomerImportResultDTO result = importCsv(emails.stream().map(email -> row("Filtered", email))
+                .collect(Collectors.joining()));
+
+        assertThat(result.getCreated()).isEqualTo(300);
+        assertThat(emails).allMatch(emailFilter::mightContain);
+    }
+
+    @Test
+    void eachChunkIsOneLookupAndOneInsertBatch() throws Exception {
+        // One taken email per chunk of 100, so that every chunk has a lookup to make
+        List<String> taken = IntStream.range(0, 3).mapToObj(i -> data.customer().getEmail()).collect(Collectors.toList());
+        StringBuilder feed = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            feed.append(row("Budget", i % 100 == 0 ? taken.get(i / 100) : data.email()));
+        }
+
+        CustomerImportResultDTO[] result = new CustomerImportResultDTO[1];
+        long statements = count(() -> result[0] = importCsv(feed.toString(), 100));
+
+        assertThat(result[0].getChunks()).isEqualTo(3);
+        assertThat(result[0].getCreated()).isEqualTo(297);
+        assertThat(result[0].getEmailsLookedUp()).isGreaterThanOrEqualTo(3);
+        // Plus a customers_seq call per 50 new ids: 297 of them take 5 or 6 calls, depending on how
+        // many ids are left over from earlier inserts
+        assertThat(statements).isBetween(3 * 2 + 5L, 3 * 2 + 6L);
+    }
+
+    private CustomerImportResultDTO importCsv(String rows) throws IOException {
+        return importCsv(rows, null);
+    }
+
+    private CustomerImportResultDTO importCsv(String rows, Integer chunkSize) throws IOException {
+        byte[] feed = (HEADER + rows).getBytes(StandardCharsets.UTF_8);
+        return customerImportService.importCustomers(new ByteArrayInputStream(feed), ImportFormat.CSV, chunkSize);
+    }
+
+    private static String row(String firstName, String email) {
+        return String.join(",", firstName, "Imported", email, "555-0100", "1 Import Street") + "\n";
+    }
+}
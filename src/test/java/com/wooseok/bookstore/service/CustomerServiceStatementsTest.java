@@ -0,0 +1,99 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.MaxStatements;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.wooseok.bookstore.support.SqlStatements.count;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// SQL statements per CustomerService call, with the second-level cache empty unless a test warms it
+@BookstoreTest
+class CustomerServiceStatementsTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestData data;
+
+    private CustomerDTO customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = data.customer();
+        // An order, so that mapping the customers would show any lazy load of their orders
+        data.order(customer, data.book(10));
+        data.evictCaches();
+    }
+
+    @Test
+    void createCustomerIsAnEmailCheckAndAnInsertPlusTheOccasionalSequenceCall() throws Exception {
+        // The pooled id sequence is called once per 50 ids
+        assertThat(count(() -> data.customer())).isBetween(2L, 3L);
+    }
+
+    @Test
+    void getCustomerByIdIsOneSelectThenServedFromTheCache() throws Exception {
+        assertThat(count(() -> customerService.getCustomerById(customer.getId()))).isEqualTo(1);
+        assertThat(count(() -> customerService.getCustomerById(customer.getId()))).isZero();
+    }
+
+    @Test
+    void readsAreOneSelect() throws Exception {
+        assertThat(count(() -> customerService.getCustomers(null, 50))).isEqualTo(1);
+        assertThat(count(() -> customerService.findCustomerByEmail(customer.getEmail()))).isEqualTo(1);
+        assertThat(count(() -> customerService.getCustomerETag(customer.getId()))).isEqualTo(1);
+        assertThat(count(() -> customerService.getCustomersETag(null, 50))).isEqualTo(1);
+        assertThat(count(() -> customerService.exportCustomers(OutputStream.nullOutputStream()))).isEqualTo(1);
+    }
+
+    @Test
+    @MaxStatements(1)
+    void getAllCustomersIsOneSelectWhateverTheirOrders() {
+        assertThat(customerService.getAllCustomers()).extracting(CustomerDTO::getId).contains(customer.getId());
+    }
+
+    @Test
+    void updateChecksTheEmailOnlyWhenItChanges() throws Exception {
+        customer.setLastName(customer.getLastName() + " Jr.");
+        assertThat(count(() -> customerService.updateCustomer(customer.getId(), customer))).isEqualTo(2);
+
+        data.evictCaches();
+        customer.setEmail("renamed." + customer.getEmail());
+        assertThat(count(() -> customerService.updateCustomer(customer.getId(), customer))).isEqualTo(3);
+    }
+
+    @Test
+    void deleteCustomerDoesNotGrowWithTheirOrders() throws Exception {
+        BookDTO first = data.book(1000);
+        BookDTO second = data.book(1000);
+        CustomerDTO oneOrder = data.customer();
+        data.order(oneOrder, first, second);
+        CustomerDTO manyOrders = data.customer();
+        List<OrderDTO> orders = IntStream.range(0, 120)
+                .mapToObj(i -> TestData.orderOf(manyOrders, first, second))
+                .collect(Collectors.toList());
+        orderService.createOrders(orders);
+        data.evictCaches();
+
+        // The customer, bulk DELETEs of the lines and orders, the (now empty) orders collection
+        // the cascade loads, and the customer's DELETE
+        assertThat(count(() -> customerService.deleteCustomer(oneOrder.getId()))).isEqualTo(5);
+        assertThat(count(() -> customerService.deleteCustomer(manyOrders.getId()))).isEqualTo(5);
+    }
+}
@@ -0,0 +1,13 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.support.BookstoreTest;
+
+// Guarded UPDATE per order (bookstore.inventory.mode=database, the default)
+@BookstoreTest
+class DatabaseInventoryHotSkuTest extends HotSkuTest {
+
+    @Override
+    protected void settle() {
+        // Every reservation is already a committed UPDATE
+    }
+}
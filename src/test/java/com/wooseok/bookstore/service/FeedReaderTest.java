@@ -0,0 +1,141 @@
+package com.wooseok.bookstore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Parsing only: the rows a feed turns into, and the line each one is reported on
+class FeedReaderTest {
+
+    private static final List<String> COLUMNS = List.of("title", "stockQuantity", "price", "description");
+
+    record Item(String title, Integer stockQuantity, BigDecimal price, String description) {
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        List<FeedReader.Row<Item>> rows = csv("""
+                title,description
+                "Hello, World","He said ""hi""
+                and left"
+                Plain,""
+                """);
+
+        assertThat(rows).extracting(FeedReader.Row::line).containsExactly(2L, 4L);
+        assertThat(rows.get(0).value()).isEqualTo(new Item("Hello, World", null, null, "He said \"hi\"\nand left"));
+        assertThat(rows.get(1).value()).isEqualTo(new Item("Plain", null, null, null));
+    }
+
+    @Test
+    void aByteOrderMarkAndCrlfLineEndsAreDroppedOutsideQuotes() throws IOException {
+        List<FeedReader.Row<Item>> rows = csv("\uFEFFtitle,stockQuantity\r\nFirst,5\r\n\"Second\r\nline\",6\r\n");
+
+        assertThat(rows).extracting(FeedReader.Row::value).containsExactly(
+                new Item("First", 5, null, null),
+                new Item("Second\r\nline", 6, null, null));
+        assertThat(rows).extracting(FeedReader.Row::line).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void headerColumnsComeInAnyOrderAndCase() throws IOException {
+        List<FeedReader.Row<Item>> rows = csv("""
+                Stock_Quantity,publisher,PRICE,Title
+                5,Ignored,12.50, Spaced title\s
+                """);
+
+        assertThat(rows).extracting(FeedReader.Row::value)
+                .containsExactly(new Item("Spaced title", 5, new BigDecimal("12.50"), null));
+    }
+
+    @Test
+    void aHeaderWithoutTheRequiredColumnsIsRejected() {
+        assertThatThrownBy(() -> csv("description,stock_quantity\nx,1\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV header is missing columns: title");
+        assertThatThrownBy(() -> csv(""))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV feed is empty, expected a header row");
+    }
+
+    @Test
+    void badRowsComeBackWithTheirLineAndError() throws IOException {
+        List<FeedReader.Row<Item>> rows = csv("""
+                title,stockQuantity,price
+                Good,1,2.00
+
+                Short,1
+                Bad stock,many,2.00
+                Bad price,1,free
+                """);
+
+        assertThat(rows).extracting(FeedReader.Row::line).containsExactly(2L, 4L, 5L, 6L);
+        assertThat(rows).extracting(FeedReader.Row::error).containsExactly(
+                null,
+                "Expected 3 fields, found 2",
+                "stockQuantity: not a whole number: many",
+                "price: not a number: free");
+        assertThat(rows.get(1).value()).isNull();
+        // The fields that did parse are kept for the error report
+        assertThat(rows.get(3).value()).isEqualTo(new Item("Bad price", 1, null, null));
+    }
+
+    @Test
+    void anOverlongRecordEndsTheFeed() throws IOException {
+        String longTitle = "x".repeat(FeedReader.MAX_RECORD_CHARS);
+        FeedReader<Item> reader = csvReader("title\nFirst\n" + longTitle + "\n");
+
+        assertThat(reader.next().value().title()).isEqualTo("First");
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Line 3: record exceeds " + FeedReader.MAX_RECORD_CHARS + " characters");
+
+        // An unbalanced quote would otherwise read the rest of the feed as one field
+        assertThatThrownBy(() -> csv("title\n\"Open\nquote\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Line 2: quoted field is never closed");
+    }
+
+    @Test
+    void ndjsonRowsAreReadLineByLine() throws IOException {
+        FeedReader<Item> reader = FeedReader.ndjson(new StringReader("""
+                {"title":"First","stockQuantity":1}
+
+                {"title":"Broken",
+                {"title":"Third","price":2.50}\r
+                """), new ObjectMapper().readerFor(Item.class));
+
+        List<FeedReader.Row<Item>> rows = readAll(reader);
+
+        assertThat(rows).extracting(FeedReader.Row::line).containsExactly(1L, 3L, 4L);
+        assertThat(rows.get(0).value()).isEqualTo(new Item("First", 1, null, null));
+        assertThat(rows.get(1).value()).isNull();
+        assertThat(rows.get(1).error()).startsWith("Malformed JSON: ");
+        assertThat(rows.get(2).value()).isEqualTo(new Item("Third", null, new BigDecimal("2.50"), null));
+    }
+
+    private static List<FeedReader.Row<Item>> csv(String feed) throws IOException {
+        return readAll(csvReader(feed));
+    }
+
+    private static FeedReader<Item> csvReader(String feed) throws IOException {
+        return FeedReader.csv(new StringReader(feed), COLUMNS, List.of("title"), fields -> new Item(
+                fields.text("title"), fields.integer("stockQuantity"), fields.decimal("price"), fields.text("description")));
+    }
+
+    private static List<FeedReader.Row<Item>> readAll(FeedReader<Item> reader) throws IOException {
+        List<FeedReader.Row<Item>> rows = new ArrayList<>();
+        FeedReader.Row<Item> row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,149 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.model.OrderItem;
+import com.wooseok.bookstore.repository.BookRepository;
+import com.wooseok.bookstore.repository.OrderItemRepository;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockingDetails;
+
+// Many threads ordering one copy of the same book at once, against each inventory engine
+// (see the subclasses): no order may take stock that is not there, and every accepted order
+// must be taken off the books table. Stock alerts must follow the stock down one step per order.
+// The same number of orders is split over 1 to 16 threads, and each run prints its orders/s, to
+// show how the engine scales with the threads contending for the row.
+abstract class HotSkuTest {
+
+    private static final int MAX_THREADS = 16;
+    private static final int ATTEMPTS = 400;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    protected TestData data;
+
+    @SpyBean
+    private StockAlertService stockAlertService;
+
+    // Brings the books table up to date with the engine
+    protected abstract void settle();
+
+    @ParameterizedTest(name = "{0} threads")
+    @ValueSource(ints = {1, 2, 4, 8, 16})
+    void concurrentOrdersNeverOversell(int threads) throws Exception {
+        BookDTO book = data.book(100);
+
+        int accepted = orderConcurrently(book, threads);
+
+        assertThat(accepted).isEqualTo(100);
+        assertThat(stockOf(book)).isZero();
+        assertThat(soldOf(book)).isEqualTo(100);
+    }
+
+    @ParameterizedTest(name = "{0} threads")
+    @ValueSource(ints = {1, 2, 4, 8, 16})
+    void concurrentOrdersLoseNoDecrement(int threads) throws Exception {
+        BookDTO book = data.book(1000);
+
+        long start = System.nanoTime();
+        int accepted = orderConcurrently(book, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertThat(accepted).isEqualTo(ATTEMPTS);
+        assertThat(stockOf(book)).isEqualTo(1000 - ATTEMPTS);
+        assertThat(soldOf(book)).isEqualTo(ATTEMPTS);
+        System.out.printf("%s: %d threads, %.0f orders/s%n", getClass().getSimpleName(), threads, accepted / seconds);
+    }
+
+    @Test
+    void everyOrderReportsTheStockItLeft() throws Exception {
+        BookDTO book = data.book(100);
+
+        orderConcurrently(book, MAX_THREADS);
+
+        List<int[]> changes = stockChangesOf(book);
+        assertThat(changes).allSatisfy(change -> assertThat(change[0]).isEqualTo(change[1] + 1));
+        assertThat(changes.stream().map(change -> change[1]).sorted().collect(Collectors.toList()))
+                .isEqualTo(IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+    }
+
+    // ATTEMPTS orders split over the threads. Returns the number placed; an order may only fail for
+    // lack of stock.
+    private int orderConcurrently(BookDTO book, int threads) throws Exception {
+        CustomerDTO customer = data.customer();
+        AtomicInteger accepted = new AtomicInteger();
+        List<Throwable> unexpected = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS / threads; i++) {
+                        try {
+                            data.order(customer, book);
+                            accepted.incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            // Insufficient stock
+                        } catch (RuntimeException e) {
+                            unexpected.add(e);
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        assertThat(unexpected).isEmpty();
+        return accepted.get();
+    }
+
+    private int stockOf(BookDTO book) {
+        settle();
+        data.evictCaches();
+        return bookRepository.findById(book.getId()).orElseThrow().getStockQuantity();
+    }
+
+    // {previousStock, newStock} of every stockChanged call for the book
+    private List<int[]> stockChangesOf(BookDTO book) {
+        return mockingDetails(stockAlertService).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("stockChanged"))
+                .filter(invocation -> invocation.<Book>getArgument(0).getId().equals(book.getId()))
+                .map(invocation -> new int[]{invocation.<Integer>getArgument(1), invocation.<Integer>getArgument(2)})
+                .collect(Collectors.toList());
+    }
+
+    private int soldOf(BookDTO book) {
+        return orderItemRepository.findByBookId(book.getId()).stream()
+                .mapToInt(OrderItem::getQuantity)
+                .sum();
+    }
+}
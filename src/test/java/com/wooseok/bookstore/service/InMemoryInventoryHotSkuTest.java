@@ -0,0 +1,19 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.support.BookstoreTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+// In-memory reservations written behind to the books table (bookstore.inventory.mode=memory)
+@BookstoreTest
+@TestPropertySource(properties = "bookstore.inventory.mode=memory")
+class InMemoryInventoryHotSkuTest extends HotSkuTest {
+
+    @Autowired
+    private InMemoryInventoryService inventoryService;
+
+    @Override
+    protected void settle() {
+        inventoryService.flush();
+    }
+}
@@ -0,0 +1,58 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BatchOrderResultDTO;
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.dto.OrderItemDTO;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@BookstoreTest
+class OrderBatchTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TestData data;
+
+    @Test
+    void orderTheDatabaseRejectsFailsAloneInItsChunk() {
+        CustomerDTO customer = data.customer();
+        BookDTO book = data.book(1000);
+        BookDTO expensive = data.book(10);
+        expensive.setPrice(new BigDecimal("50000000.00"));
+        bookService.updateBook(expensive.getId(), expensive);
+
+        List<OrderDTO> orders = IntStream.range(0, 150)
+                .mapToObj(i -> TestData.orderOf(customer, book))
+                .collect(Collectors.toList());
+        // Two copies total 100,000,000.00, past the NUMERIC(10, 2) of orders.total_amount
+        orders.set(42, OrderDTO.builder()
+                .customerId(customer.getId())
+                .items(List.of(OrderItemDTO.builder().bookId(expensive.getId()).quantity(2).build()))
+                .build());
+
+        List<BatchOrderResultDTO> results = orderService.createOrders(orders);
+
+        assertThat(results).hasSize(150);
+        assertThat(results.get(42).isSuccess()).isFalse();
+        assertThat(results.get(42).getIndex()).isEqualTo(42);
+        assertThat(results).filteredOn(BatchOrderResultDTO::isSuccess).hasSize(149);
+        assertThat(bookService.getBookById(book.getId()).getStockQuantity()).isEqualTo(1000 - 149);
+        assertThat(bookService.getBookById(expensive.getId()).getStockQuantity()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,147 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.repository.OrderRepository;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.MaxStatements;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.wooseok.bookstore.support.SqlStatements.count;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// SQL statements per OrderService call, with the second-level cache empty
+@BookstoreTest
+class OrderServiceStatementsTest {
+
+    // The books and the customer, the sales rollup MERGE, and the INSERTs of the order and of its
+    // lines. Stock is reserved with one guarded UPDATE per book on top of these.
+    private static final long CREATE_ORDER_STATEMENTS = 5;
+
+    // The orders and order_items id sequences, each called once per 50 ids
+    private static final long SEQUENCE_CALLS = 2;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestData data;
+
+    private CustomerDTO customer;
+    private List<BookDTO> books;
+
+    @BeforeEach
+    void setUp() {
+        customer = data.customer();
+        books = IntStream.range(0, 10).mapToObj(i -> data.book(1000)).collect(Collectors.toList());
+        data.evictCaches();
+    }
+
+    @Test
+    void createOrderAddsOneStockUpdatePerBook() throws Exception {
+        assertThat(count(() -> data.order(customer, books.get(0))))
+                .isBetween(CREATE_ORDER_STATEMENTS + 1, CREATE_ORDER_STATEMENTS + 1 + SEQUENCE_CALLS);
+
+        data.evictCaches();
+        assertThat(count(() -> data.order(customer, books.toArray(new BookDTO[0]))))
+                .isBetween(CREATE_ORDER_STATEMENTS + 10, CREATE_ORDER_STATEMENTS + 10 + SEQUENCE_CALLS);
+    }
+
+    @Test
+    void createOrdersLoadsOncePerChunkAndBatchesTheInserts() throws Exception {
+        List<OrderDTO> orders = IntStream.range(0, 100)
+                .mapToObj(i -> TestData.orderOf(customer, books.get(i % 10), books.get((i + 1) % 10)))
+                .collect(Collectors.toList());
+
+        // 200 stock UPDATEs, one per line; everything else is per chunk or per JDBC batch of 50
+        long statements = count(() -> orderService.createOrders(orders));
+        assertThat(statements - 200).isBetween(1L, 20L);
+    }
+
+    @Test
+    void getOrderStatusIsOneProjection() throws Exception {
+        OrderDTO order = data.order(customer, books.get(0));
+
+        assertThat(count(() -> orderService.getOrderStatus(order.getId()))).isEqualTo(1);
+    }
+
+    // The read paths fetch customers, lines and books with the orders, so the counts below hold
+    // however many orders and lines there are: nothing is lazily loaded while mapping to OrderDTO
+
+    @Test
+    void getOrderByIdIsOneSelectWhateverItsLineCount() throws Exception {
+        OrderDTO order = data.order(customer, books.toArray(new BookDTO[0]));
+        data.evictCaches();
+
+        assertThat(count(() -> orderService.getOrderById(order.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    void customerOrderHistoryDoesNotGrowWithTheOrders() throws Exception {
+        createOrders(customer, 120);
+        data.evictCaches();
+
+        // The customer check, then the orders with their details
+        assertThat(count(() -> orderService.getCustomerOrders(customer.getId()))).isEqualTo(2);
+        // The customer check, the page of ids, then those orders with their details
+        assertThat(count(() -> orderService.getCustomerOrders(customer.getId(), null, 50))).isEqualTo(3);
+    }
+
+    @Test
+    void orderPagesAndListingDoNotGrowWithTheOrders() throws Exception {
+        createOrders(customer, 120);
+        data.evictCaches();
+
+        // The page of ids, then those orders with their details
+        assertThat(count(() -> orderService.getOrders(null, 50))).isEqualTo(2);
+        assertThat(count(() -> orderService.getAllOrders())).isEqualTo(1);
+    }
+
+    @Nested
+    class GetAllOrders {
+
+        @BeforeEach
+        void createTheOrders() {
+            createOrders(customer, 120);
+            data.evictCaches();
+        }
+
+        @Test
+        @MaxStatements(1)
+        void isOneSelectWhateverTheOrdersAndLines() {
+            assertThat(orderService.getAllOrders()).hasSizeGreaterThanOrEqualTo(120);
+        }
+    }
+
+    @Test
+    void exportRunsOneItemQueryPer500Orders() throws Exception {
+        createOrders(customer, 600);
+        long orders = orderRepository.count();
+        data.evictCaches();
+
+        // The order stream, then the lines and books of each chunk of 500 orders
+        assertThat(count(() -> orderService.exportOrders(OutputStream.nullOutputStream())))
+                .isEqualTo(1 + (orders + 499) / 500);
+    }
+
+    // Orders of three books each
+    private void createOrders(CustomerDTO customer, int count) {
+        orderService.createOrders(IntStream.range(0, count)
+                .mapToObj(i -> TestData.orderOf(customer,
+                        books.get(i % 10), books.get((i + 1) % 10), books.get((i + 2) % 10)))
+                .collect(Collectors.toList()));
+    }
+}
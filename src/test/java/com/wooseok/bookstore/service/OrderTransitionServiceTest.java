@@ -0,0 +1,192 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.StatusTransitionResultDTO;
+import com.wooseok.bookstore.dto.TransitionChunkDTO;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.repository.OrderRepository;
+import com.wooseok.bookstore.repository.PendingOrderRepository;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Bulk status transitions. Every synchronously created PENDING order is confirmed before each test,
+// so a scan that starts just before the first order created here (after = first id - 1) sees only
+// this test's orders.
+@BookstoreTest
+class OrderTransitionServiceTest {
+
+    @Autowired
+    private OrderTransitionService orderTransitionService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PendingOrderRepository pendingOrderRepository;
+
+    @Autowired
+    private TestData data;
+
+    private CustomerDTO customer;
+    private BookDTO book;
+
+    @BeforeEach
+    void setUp() {
+        customer = data.customer();
+        book = data.book(10_000);
+        // Ids are not in creation order across application contexts: each draws 50 at a time from the
+        // sequence, so an earlier test class in another context may have left PENDING orders with
+        // higher ids than the ones this context hands out next
+        orderTransitionService.transitionOrders("PENDING", "CONFIRMED", null, null, null, null);
+    }
+
+    @Test
+    void movesEveryOrderInTheFromStatusOneChunkAtATime() {
+        List<Long> ids = createOrders(250);
+        Long accepted = orderService.acceptOrder(TestData.orderOf(customer, book)).getId();
+
+        StatusTransitionResultDTO result = orderTransitionService.transitionOrders(
+                "pending", "CONFIRMED", null, ids.get(0) - 1, null, 100);
+
+        assertThat(result.getUpdated()).isEqualTo(250);
+        assertThat(result.getSkipped()).isZero();
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getError()).isNull();
+        assertThat(result.getChunks()).extracting(TransitionChunkDTO::getExamined).containsExactly(100, 100, 50);
+        assertThat(result.getChunks()).extracting(TransitionChunkDTO::getUpdated).containsExactly(100, 100, 50);
+        assertThat(result.getResumeAfter()).isEqualTo(ids.get(ids.size() - 1));
+        assertThat(result.getChunkMillisP50()).isBetween(0L, result.getChunkMillisMax());
+        assertThat(result.getChunkMillisMax()).isEqualTo(
+                result.getChunks().stream().mapToLong(TransitionChunkDTO::getMillis).max().orElseThrow());
+        assertThat(statusesOf(ids)).containsOnly(Order.OrderStatus.CONFIRMED);
+
+        // Still in the async pipeline: not examined, not moved
+        assertThat(statusOf(accepted)).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(pendingOrderRepository.existsById(accepted)).isTrue();
+    }
+
+    @Test
+    void stopsAtMaxOrdersAndResumesFromTheCursor() {
+        List<Long> ids = createOrders(250);
+
+        StatusTransitionResultDTO first = orderTransitionService.transitionOrders(
+                "PENDING", "CONFIRMED", null, ids.get(0) - 1, 150, 100);
+
+        assertThat(first.getUpdated()).isEqualTo(150);
+        assertThat(first.isCompleted()).isFalse();
+        assertThat(first.getChunks()).extracting(TransitionChunkDTO::getExamined).containsExactly(100, 50);
+        assertThat(first.getResumeAfter()).isEqualTo(ids.get(149));
+        assertThat(statusesOf(ids.subList(0, 150))).containsOnly(Order.OrderStatus.CONFIRMED);
+        assertThat(statusesOf(ids.subList(150, 250))).containsOnly(Order.OrderStatus.PENDING);
+
+        StatusTransitionResultDTO rest = orderTransitionService.transitionOrders(
+                "PENDING", "CONFIRMED", null, first.getResumeAfter(), null, 100);
+
+        assertThat(rest.getUpdated()).isEqualTo(100);
+        assertThat(rest.isCompleted()).isTrue();
+        assertThat(rest.getChunks().get(0).getFirstOrderId()).isEqualTo(ids.get(150));
+        assertThat(statusesOf(ids)).containsOnly(Order.OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    void listedOrdersNotInTheFromStatusOrStillPendingAreSkipped() {
+        List<Long> ids = createOrders(4);
+        orderTransitionService.transitionOrders("PENDING", "CONFIRMED", List.of(ids.get(0)), null, null, null);
+        Long accepted = orderService.acceptOrder(TestData.orderOf(customer, book)).getId();
+
+        List<Long> listed = List.of(ids.get(3), ids.get(0), accepted, ids.get(1), ids.get(1), ids.get(2));
+        StatusTransitionResultDTO result = orderTransitionService.transitionOrders(
+                "PENDING", "CONFIRMED", listed, null, null, null);
+
+        // Sorted and deduplicated; the confirmed order and the accepted one are examined but not updated
+        assertThat(result.getUpdated()).isEqualTo(3);
+        assertThat(result.getSkipped()).isEqualTo(2);
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getResumeAfter()).isEqualTo(accepted);
+        assertThat(statusesOf(ids)).containsOnly(Order.OrderStatus.CONFIRMED);
+        assertThat(statusOf(accepted)).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(pendingOrderRepository.existsById(accepted)).isTrue();
+
+        // Moving them on along the lifecycle
+        orderTransitionService.transitionOrders("CONFIRMED", "SHIPPED", ids, null, null, null);
+        orderTransitionService.transitionOrders("SHIPPED", "DELIVERED", ids, null, null, null);
+        assertThat(statusesOf(ids)).containsOnly(Order.OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void listedOrdersResumeAfterTheCursor() {
+        List<Long> ids = createOrders(5);
+
+        StatusTransitionResultDTO result = orderTransitionService.transitionOrders(
+                "PENDING", "CONFIRMED", ids, ids.get(1), null, null);
+
+        assertThat(result.getUpdated()).isEqualTo(3);
+        assertThat(result.getChunks().get(0).getFirstOrderId()).isEqualTo(ids.get(2));
+        assertThat(statusesOf(ids.subList(0, 2))).containsOnly(Order.OrderStatus.PENDING);
+        assertThat(statusesOf(ids.subList(2, 5))).containsOnly(Order.OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    void illegalTransitionsAreRejectedBeforeAnyOrderMoves() {
+        List<Long> ids = createOrders(2);
+
+        assertThatThrownBy(() -> transition("PENDING", "SHIPPED", ids))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Orders cannot move from PENDING to SHIPPED");
+        assertThatThrownBy(() -> transition("DELIVERED", "PENDING", ids))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Orders cannot move from DELIVERED to PENDING");
+        assertThatThrownBy(() -> transition("CANCELLED", "CONFIRMED", ids))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> transition("LOST", "CONFIRMED", ids))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown order status: LOST");
+        // A legal step, but a status UPDATE would neither give the stock back nor correct the rollups
+        assertThatThrownBy(() -> transition("PENDING", "CANCELLED", ids))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Orders cannot be cancelled in bulk");
+        assertThatThrownBy(() -> orderTransitionService.transitionOrders("PENDING", "CONFIRMED", ids, null, null, 50))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> orderTransitionService.transitionOrders("PENDING", "CONFIRMED", null, null, 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(statusesOf(ids)).containsOnly(Order.OrderStatus.PENDING);
+    }
+
+    private StatusTransitionResultDTO transition(String from, String to, List<Long> ids) {
+        return orderTransitionService.transitionOrders(from, to, ids, null, null, null);
+    }
+
+    // Orders created synchronously stay PENDING, with no pending_orders entry
+    private List<Long> createOrders(int count) {
+        return orderService.createOrders(IntStream.range(0, count)
+                        .mapToObj(i -> TestData.orderOf(customer, book))
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(result -> result.getOrder().getId())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private Order.OrderStatus statusOf(Long id) {
+        return orderRepository.findStatusById(id).orElseThrow();
+    }
+
+    private List<Order.OrderStatus> statusesOf(List<Long> ids) {
+        return ids.stream().map(this::statusOf).collect(Collectors.toList());
+    }
+}
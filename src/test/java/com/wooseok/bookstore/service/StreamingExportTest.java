@@ -0,0 +1,129 @@
+package com.wooseok.bookstore.service;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.model.Book;
+import com.wooseok.bookstore.model.Customer;
+import com.wooseok.bookstore.model.Order;
+import com.wooseok.bookstore.repository.BookRepository;
+import com.wooseok.bookstore.repository.CustomerRepository;
+import com.wooseok.bookstore.repository.OrderRepository;
+import com.wooseok.bookstore.support.BookstoreTest;
+import com.wooseok.bookstore.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.OutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The exports clear the persistence context every 500 rows, so however many rows there are, the
+// session never holds more than one chunk of the exported entity. Checked after every line written.
+@BookstoreTest
+class StreamingExportTest {
+
+    private static final int ROWS = 1200;
+    private static final int CHUNK = 500;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData data;
+
+    @Test
+    void bookExportHoldsAtMostOneChunk() throws Exception {
+        IntStream.range(0, ROWS).forEach(i -> data.book(5));
+
+        ManagedEntityProbe probe = new ManagedEntityProbe(Book.class);
+        bookService.exportBooks(probe);
+
+        assertThat(probe.lines).isEqualTo(bookRepository.count());
+        assertThat(probe.maxManaged).isBetween(1, CHUNK);
+    }
+
+    @Test
+    void customerExportHoldsAtMostOneChunk() throws Exception {
+        IntStream.range(0, ROWS).forEach(i -> data.customer());
+
+        ManagedEntityProbe probe = new ManagedEntityProbe(Customer.class);
+        customerService.exportCustomers(probe);
+
+        assertThat(probe.lines).isEqualTo(customerRepository.count());
+        assertThat(probe.maxManaged).isBetween(1, CHUNK);
+    }
+
+    @Test
+    void orderExportHoldsAtMostOneChunk() throws Exception {
+        CustomerDTO customer = data.customer();
+        BookDTO first = data.book(10_000);
+        BookDTO second = data.book(10_000);
+        orderService.createOrders(IntStream.range(0, ROWS)
+                .mapToObj(i -> TestData.orderOf(customer, first, second))
+                .collect(Collectors.toList()));
+
+        ManagedEntityProbe probe = new ManagedEntityProbe(Order.class);
+        orderService.exportOrders(probe);
+
+        assertThat(probe.lines).isEqualTo(orderRepository.count());
+        assertThat(probe.maxManaged).isBetween(1, CHUNK);
+    }
+
+    // Discards the export, counting lines and the most entities of one type the export's session held
+    private class ManagedEntityProbe extends OutputStream {
+
+        private final String entityName;
+        private long lines;
+        private int maxManaged;
+
+        ManagedEntityProbe(Class<?> entityType) {
+            this.entityName = entityType.getName();
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lineWritten();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+
+        // Runs inside the export's transaction, so the shared EntityManager is the export's session
+        private void lineWritten() {
+            lines++;
+            int managed = (int) entityManager.unwrap(Session.class).getStatistics().getEntityKeys().stream()
+                    .filter(key -> ((EntityKey) key).getEntityName().equals(entityName))
+                    .count();
+            maxManaged = Math.max(maxManaged, managed);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.wooseok.bookstore.support;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// The whole application against the in-memory test database, with statement counting.
+// Every test class shares one context, so tests create their own rows (see TestData)
+// rather than relying on what the tables hold.
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import({StatementCountingConfig.class, TestData.class})
+public @interface BookstoreTest {
+}
@@ -0,0 +1,19 @@
+package com.wooseok.bookstore.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// A statement budget for a whole test method: the test fails if its body runs more SQL statements
+// than this, counted as SqlStatements.count counts them. @BeforeEach and @AfterEach methods are not
+// counted, so the data a test needs belongs there. Only the test's own thread is counted.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(MaxStatementsExtension.class)
+public @interface MaxStatements {
+
+    long value();
+}
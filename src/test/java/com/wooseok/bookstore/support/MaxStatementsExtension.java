@@ -0,0 +1,33 @@
+package com.wooseok.bookstore.support;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Enforces @MaxStatements around the test method body, after @BeforeEach and before @AfterEach
+class MaxStatementsExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryCountHolder.clear();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        long statements = QueryCountHolder.getGrandTotal().getTotal();
+        QueryCountHolder.clear();
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        long budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxStatements.class)
+                .orElseThrow()
+                .value();
+        assertThat(statements)
+                .as("SQL statements run by %s", context.getDisplayName())
+                .isLessThanOrEqualTo(budget);
+    }
+}
@@ -0,0 +1,69 @@
+package com.wooseok.bookstore.support;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Statements the current thread ran during a call, through the proxy of StatementCountingConfig.
+// A JDBC batch counts once, as it is one round trip; a sequence call counts like any SELECT.
+public final class SqlStatements {
+
+    @FunctionalInterface
+    public interface Call {
+        void run() throws Exception;
+    }
+
+    // A statement as the driver received it, with the first (or only) set of bound parameters
+    public record Statement(String sql, List<Object> parameters) {
+    }
+
+    private static final ThreadLocal<List<Statement>> CAPTURED = new ThreadLocal<>();
+
+    private SqlStatements() {
+    }
+
+    public static long count(Call call) throws Exception {
+        QueryCountHolder.clear();
+        try {
+            call.run();
+            return QueryCountHolder.getGrandTotal().getTotal();
+        } finally {
+            QueryCountHolder.clear();
+        }
+    }
+
+    public static List<Statement> capture(Call call) throws Exception {
+        List<Statement> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            call.run();
+            return statements;
+        } finally {
+            CAPTURED.remove();
+        }
+    }
+
+    static void record(List<QueryInfo> queries) {
+        List<Statement> statements = CAPTURED.get();
+        if (statements == null) {
+            return;
+        }
+        for (QueryInfo query : queries) {
+            List<Object> parameters = query.getParametersList().isEmpty() ? List.of()
+                    : query.getParametersList().get(0).stream()
+                    .sorted(Comparator.comparing(operation -> (Integer) operation.getArgs()[0]))
+                    .map(SqlStatements::value)
+                    .collect(Collectors.toList());
+            statements.add(new Statement(query.getQuery(), parameters));
+        }
+    }
+
+    private static Object value(ParameterSetOperation operation) {
+        return operation.getMethod().getName().equals("setNull") ? null : operation.getArgs()[1];
+    }
+}
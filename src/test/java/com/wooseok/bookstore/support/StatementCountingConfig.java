@@ -0,0 +1,34 @@
+package com.wooseok.bookstore.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+// Wraps the application's DataSource in a datasource-proxy that counts statements per thread.
+// Hibernate, Spring Data and JdbcTemplate all borrow their connections from it, so every
+// statement a service call runs is counted, including the ones flushed at commit. The proxy also
+// hands statements to SqlStatements.capture. It wraps whatever DataSource bean it is given, even
+// one the application's own statement counter already proxies: the two proxies count independently.
+@TestConfiguration(proxyBeanMethods = false)
+public class StatementCountingConfig {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .countQuery()
+                            .afterQuery((execution, queries) -> SqlStatements.record(queries))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
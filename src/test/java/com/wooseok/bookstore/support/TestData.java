@@ -0,0 +1,89 @@
+package com.wooseok.bookstore.support;
+
+import com.wooseok.bookstore.dto.BookDTO;
+import com.wooseok.bookstore.dto.CustomerDTO;
+import com.wooseok.bookstore.dto.OrderDTO;
+import com.wooseok.bookstore.dto.OrderItemDTO;
+import com.wooseok.bookstore.service.BookService;
+import com.wooseok.bookstore.service.CustomerService;
+import com.wooseok.bookstore.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Rows with unique ISBNs, emails and categories, created through the services
+@TestComponent
+@RequiredArgsConstructor
+public class TestData {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final BookService bookService;
+    private final CustomerService customerService;
+    private final OrderService orderService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Empties the second-level cache, so the next call reads Book and Customer rows from the database
+    public void evictCaches() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    public String category() {
+        return "Category " + SEQUENCE.incrementAndGet();
+    }
+
+    // For rows that reach the database some other way, such as an import feed
+    public String isbn() {
+        return String.format("979%010d", SEQUENCE.incrementAndGet());
+    }
+
+    public String email() {
+        return "customer" + SEQUENCE.incrementAndGet() + "@test.example";
+    }
+
+    public BookDTO book(int stock) {
+        return book(category(), stock);
+    }
+
+    public BookDTO book(String category, int stock) {
+        long n = SEQUENCE.incrementAndGet();
+        return bookService.createBook(BookDTO.builder()
+                .title("Test Book " + n)
+                .author("Test Author " + n)
+                .isbn(String.format("979%010d", n))
+                .category(category)
+                .price(new BigDecimal("12.50"))
+                .stockQuantity(stock)
+                .build());
+    }
+
+    public CustomerDTO customer() {
+        long n = SEQUENCE.incrementAndGet();
+        return customerService.createCustomer(CustomerDTO.builder()
+                .firstName("Test")
+                .lastName("Customer " + n)
+                .email("customer" + n + "@test.example")
+                .phoneNumber("555-" + n)
+                .build());
+    }
+
+    // One of each book
+    public OrderDTO order(CustomerDTO customer, BookDTO... books) {
+        return orderService.createOrder(orderOf(customer, books));
+    }
+
+    public static OrderDTO orderOf(CustomerDTO customer, BookDTO... books) {
+        return OrderDTO.builder()
+                .customerId(customer.getId())
+                .items(Arrays.stream(books)
+                        .map(book -> OrderItemDTO.builder().bookId(book.getId()).quantity(1).build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}